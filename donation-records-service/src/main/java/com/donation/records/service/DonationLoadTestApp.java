@@ -7,7 +7,10 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 //@SpringBootApplication
 //public class DonationLoadTestApp {
@@ -80,9 +83,12 @@ public class DonationLoadTestApp {
 
             for (int totalMessages : testSizes) {
                 long start = System.currentTimeMillis();
+                List<CompletableFuture<Void>> confirms = new ArrayList<>(totalMessages);
                 for (int i = 0; i < totalMessages; i++) {
-                    producer.sendDonation(sample);
+                    confirms.add(producer.sendDonation(sample));
                 }
+                // Measured up to the last broker confirm, not just until the sends were queued
+                CompletableFuture.allOf(confirms.toArray(new CompletableFuture<?>[0])).join();
                 long end = System.currentTimeMillis();
 
                 double throughput = (totalMessages * 1000.0) / (end - start);
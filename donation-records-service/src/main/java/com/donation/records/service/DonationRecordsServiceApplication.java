@@ -2,8 +2,10 @@ package com.donation.records.service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class DonationRecordsServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,20 +1,28 @@
 package com.donation.records.service.controllers;
 
+import com.donation.records.service.models.BulkDonationResultDTO;
 import com.donation.records.service.models.DonationDTO;
-import com.donation.records.service.models.DonationHistoryDTO;
 import com.donation.records.service.services.DonationService;
-import lombok.AllArgsConstructor;
+import com.donation.records.service.services.DonorScoringService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class DonationController {
 
     private final DonationService donationService;
+    private final DonorScoringService donorScoringService;
+
+    @Value("${donation.bulk.max-items:1000}")
+    private int maxBulkItems;
 
     @PostMapping("/donation/v1/createDonation")
     public ResponseEntity<String> createDonation(@RequestBody DonationDTO dto) {
@@ -27,22 +35,56 @@ public class DonationController {
         }
     }
 
-    @GetMapping("/donation/v1/fetchDonationHistory")
-    public ResponseEntity<List<DonationHistoryDTO>> fetchDonationHistory(@RequestHeader ("donor_id") Long donorId) {
+    /**
+     * Bulk variant of createDonation for partner integrations; returns one result per entry, in request order.
+     */
+    @PostMapping("/donation/v1/createDonations")
+    public ResponseEntity<?> createDonations(@RequestBody List<DonationDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            return ResponseEntity.badRequest().body("No donations provided");
+        }
+        if (dtos.size() > maxBulkItems) {
+            return ResponseEntity.badRequest()
+                    .body("Too many donations in one request: " + dtos.size() + " (max " + maxBulkItems + ")");
+        }
+
         try {
-            List<DonationHistoryDTO> donationHistory = donationService.fetchDonationHistory(donorId);
-            if (donationHistory.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(List.of());
-            }
-            return ResponseEntity.ok(donationHistory);
+            List<BulkDonationResultDTO> results = donationService.createDonations(dtos);
+            return ResponseEntity.ok(results);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(List.of());
+                    .body("Failed to create donations: " + e.getMessage());
         }
+    }
 
+    /**
+     * One page of the donor's history, newest first. Pass the returned {@code next_cursor}
+     * back in the {@code cursor} header to fetch the next page. A donor without donations gets an
+     * empty page, not a 404.
+     */
+    @GetMapping("/donation/v1/fetchDonationHistory")
+    public ResponseEntity<?> fetchDonationHistory(@RequestHeader ("donor_id") Long donorId,
+                                                  @RequestHeader(defaultValue = "50") int limit,
+                                                  @RequestHeader(required = false) String cursor) {
+        try {
+            StreamingResponseBody body = donationService.streamDonationHistory(donorId, limit, cursor);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
+    /**
+     * Top donors by score, served from memory.
+     */
+    @GetMapping("/donation/v1/leaderboard")
+    public ResponseEntity<?> fetchLeaderboard(@RequestHeader(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > donorScoringService.getLeaderboardSize()) {
+            return ResponseEntity.badRequest()
+                    .body("limit must be between 1 and " + donorScoringService.getLeaderboardSize());
+        }
+        return ResponseEntity.ok(donorScoringService.topDonors(limit));
+    }
 
     @GetMapping("/donation/health")
     public ResponseEntity<String> checkHealth() {
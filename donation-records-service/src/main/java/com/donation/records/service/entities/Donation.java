@@ -15,8 +15,10 @@ import java.util.List;
 @AllArgsConstructor
 public class Donation {
 
+    // Pooled sequence so inserts can be JDBC-batched; IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "donations_seq")
+    @SequenceGenerator(name = "donations_seq", sequenceName = "donations_seq", allocationSize = 50)
     private Long id;
 
     private Long donorId;
@@ -0,0 +1,45 @@
+package com.donation.records.service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message waiting to be published, written in the same transaction as the change it announces.
+ * {@code sentAt} stays null until the broker has confirmed the message; {@code claimedUntil} is set while
+ * a relay instance is publishing it. {@code failedAt} parks a message the relay has given up on, either
+ * unreadable or rejected {@code donation.outbox.max-attempts} times; clearing it requeues the message.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_sent_at_id", columnList = "sentAt, id"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    private String exchange;
+
+    private String routingKey;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    private LocalDateTime claimedUntil;
+
+    private LocalDateTime failedAt;
+
+    @Builder.Default
+    private Integer attempts = 0;
+}
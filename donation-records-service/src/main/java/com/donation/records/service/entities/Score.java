@@ -2,7 +2,16 @@ package com.donation.records.service.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Running donation aggregates of one donor, updated as donations are created
+ * and periodically recomputed from the donations table by DonorScoringService.
+ */
 @Entity
 @Getter
 @Setter
@@ -15,7 +24,24 @@ public class Score {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private Long donationId;
+    @Column(unique = true)
+    private Long donorId;
+
+    private String donorName;
+
+    private Long donationCount;
+
+    private Long totalQuantity;
+
+    // donation type -> total quantity donated
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Long> quantityByType;
 
     private Double score;
+
+    // Incremented by every change, so standings reaching the leaderboard out of commit order can be told apart
+    private Long revision;
+
+    private LocalDateTime updatedAt;
 }
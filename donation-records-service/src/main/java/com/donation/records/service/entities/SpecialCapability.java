@@ -13,7 +13,8 @@ import lombok.*;
 public class SpecialCapability {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "special_capability_seq")
+    @SequenceGenerator(name = "special_capability_seq", sequenceName = "special_capability_seq", allocationSize = 50)
     private Long id;
 
     private String capability;
@@ -0,0 +1,28 @@
+package com.donation.records.service.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one entry of a bulk create request, matched to the request by {@code index}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkDonationResultDTO {
+
+    public enum Status { CREATED, FAILED }
+
+    private int index;
+
+    @JsonProperty("donation_id")
+    private Long donationId;
+
+    private Status status;
+
+    private String error;
+}
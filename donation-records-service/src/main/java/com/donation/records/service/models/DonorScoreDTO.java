@@ -0,0 +1,36 @@
+package com.donation.records.service.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorScoreDTO {
+
+    @JsonProperty("donor_id")
+    private Long donorId;
+
+    @JsonProperty("donor_name")
+    private String donorName;
+
+    @JsonProperty("donation_count")
+    private long donationCount;
+
+    @JsonProperty("total_quantity")
+    private long totalQuantity;
+
+    @JsonProperty("quantity_by_type")
+    private Map<String, Long> quantityByType;
+
+    private double score;
+
+    // Row revision in scores, see Score#revision
+    @JsonIgnore
+    private long revision;
+}
@@ -1,21 +1,325 @@
 package com.donation.records.service.producers;
 
+import com.donation.records.service.entities.OutboxEvent;
 import com.donation.records.service.models.DonationDTO;
+import com.donation.records.service.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Publishes donation messages through a pipeline: callers enqueue and get a future, a dedicated
+ * publisher thread sends whatever accumulated within {@code linger-ms} (or {@code batch-size}
+ * messages) on one channel, and publisher confirms complete the futures asynchronously.
+ * Nacked or failed sends are retried with backoff. Callers block once {@code max-outstanding}
+ * messages are queued or awaiting a confirm, and fail after {@code backpressure-timeout-ms}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DonationMsgProducer {
 
+    static final String DONATION_EXCHANGE = "donation-exchange";
+    static final String DONATION_ROUTING_KEY = "donation.shared";
+
     private final RabbitTemplate rabbitTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>();
+    // Messages waiting for their retry delay; whoever removes a message first requeues it
+    private final Set<PendingMessage> retrying = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("donation-publisher-retry").daemon().factory());
+
+    @Value("${donation.publisher.batch-size:200}")
+    private int batchSize;
+
+    @Value("${donation.publisher.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${donation.publisher.max-outstanding:5000}")
+    private int maxOutstanding;
+
+    @Value("${donation.publisher.backpressure-timeout-ms:10000}")
+    private long backpressureTimeoutMs;
+
+    @Value("${donation.publisher.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${donation.publisher.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${donation.publisher.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    // One permit per message between enqueue and its final ack or failure
+    private Semaphore outstanding;
+    private Thread publisherThread;
+    private volatile boolean running;
+    private boolean confirms;
+
+    private Timer confirmLatency;
+    private Counter nacks;
+    private Counter retries;
+    private Counter failures;
+
+    @PostConstruct
+    void start() {
+        outstanding = new Semaphore(maxOutstanding);
+        confirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        if (!confirms) {
+            log.warn("Publisher confirms are disabled, donation messages count as delivered once written to the channel");
+        }
+
+        confirmLatency = Timer.builder("donation.publish.confirm.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        nacks = meterRegistry.counter("donation.publish.nacks");
+        retries = meterRegistry.counter("donation.publish.retries");
+        failures = meterRegistry.counter("donation.publish.failures");
+        Gauge.builder("donation.publish.in_flight", this, p -> p.maxOutstanding - p.outstanding.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("donation.publish.queued", queue, BlockingQueue::size)
+                .register(meterRegistry);
+
+        running = true;
+        publisherThread = Thread.ofPlatform().name("donation-publisher").daemon().start(this::publishLoop);
+    }
+
+    /**
+     * Queues the donation message; the future completes once the broker has confirmed it.
+     */
+    public CompletableFuture<Void> sendDonation(DonationDTO donationDTO) {
+        return publish(DONATION_EXCHANGE, DONATION_ROUTING_KEY, donationDTO);
+    }
+
+    CompletableFuture<Void> publish(String exchange, String routingKey, Object payload) {
+        if (!running) {
+            throw new IllegalStateException("Donation publisher is stopped");
+        }
+        try {
+            if (!outstanding.tryAcquire(backpressureTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Donation publisher backlog is full (" + maxOutstanding + " messages outstanding)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for publisher capacity", e);
+        }
+
+        PendingMessage message = new PendingMessage(exchange, routingKey, payload);
+        queue.add(message);
+        return message.result;
+    }
+
+    /**
+     * Writes the donation message to the outbox as part of the caller's transaction;
+     * {@link DonationOutboxRelay} publishes it once that transaction has committed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDonation(DonationDTO donationDTO) throws JsonProcessingException {
+        outboxEventRepository.save(toOutboxEvent(donationDTO));
+        log.debug("Donation message queued in outbox for donation ID: {}", donationDTO.getDonation().getId());
+    }
+
+    /**
+     * Batch variant of {@link #enqueueDonation}; the outbox rows are inserted in JDBC batches.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDonations(List<DonationDTO> donationDTOs) throws JsonProcessingException {
+        List<OutboxEvent> events = new ArrayList<>(donationDTOs.size());
+        for (DonationDTO donationDTO : donationDTOs) {
+            events.add(toOutboxEvent(donationDTO));
+        }
+        outboxEventRepository.saveAll(events);
+        log.debug("{} donation messages queued in outbox", events.size());
+    }
+
+    private OutboxEvent toOutboxEvent(DonationDTO donationDTO) throws JsonProcessingException {
+        return OutboxEvent.builder()
+                .exchange(DONATION_EXCHANGE)
+                .routingKey(DONATION_ROUTING_KEY)
+                .payload(objectMapper.writeValueAsString(donationDTO))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void publishLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+
+                batch.add(first);
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    PendingMessage next = queue.poll(Math.max(0, lingerDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                publishBatch(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: send what was already taken from the queue and keep draining the rest
+                running = false;
+                if (!batch.isEmpty()) {
+                    publishBatch(batch);
+                }
+            } catch (Exception e) {
+                log.error("Donation publisher loop failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publishBatch(List<PendingMessage> batch) {
+        int[] handled = {0};
+        try {
+            // All messages of the batch go out on the same channel, checked out once
+            rabbitTemplate.invoke(operations -> {
+                for (PendingMessage message : batch) {
+                    handled[0]++;
+                    send(operations, message);
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            // Channel could not be obtained or was lost; messages not yet handed to send() are retried
+            for (PendingMessage message : batch.subList(handled[0], batch.size())) {
+                message.attempts++;
+                retryOrFail(message, e.getMessage());
+            }
+        }
+        log.debug("Published batch of {} donation messages", batch.size());
+    }
+
+    private void send(RabbitOperations operations, PendingMessage message) {
+        message.attempts++;
+        message.sentAtNanos = System.nanoTime();
+        CorrelationData correlation = new CorrelationData();
+        try {
+            operations.convertAndSend(message.exchange, message.routingKey, message.payload, correlation);
+        } catch (AmqpException e) {
+            retryOrFail(message, e.getMessage());
+            return;
+        }
+
+        if (!confirms) {
+            complete(message);
+            return;
+        }
+        correlation.getFuture().whenComplete((confirm, error) -> {
+            if (error == null && confirm.isAck()) {
+                complete(message);
+            } else {
+                nacks.increment();
+                retryOrFail(message, error != null ? error.getMessage() : confirm.getReason());
+            }
+        });
+    }
+
+    private void complete(PendingMessage message) {
+        confirmLatency.record(System.nanoTime() - message.sentAtNanos, TimeUnit.NANOSECONDS);
+        outstanding.release();
+        message.result.complete(null);
+    }
+
+    private void retryOrFail(PendingMessage message, String reason) {
+        if (message.attempts <= maxRetries && scheduleRetry(message)) {
+            retries.increment();
+            log.warn("Donation message not confirmed ({}), retry {} of {}", reason, message.attempts, maxRetries);
+            return;
+        }
+
+        fail(message, reason);
+    }
+
+    private boolean scheduleRetry(PendingMessage message) {
+        retrying.add(message);
+        try {
+            retryScheduler.schedule(() -> {
+                if (retrying.remove(message)) {
+                    queue.add(message);
+                }
+            }, retryBackoffMs * message.attempts, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down; if stop() has already requeued the message it still gets its retry
+            return !retrying.remove(message);
+        }
+    }
+
+    private void fail(PendingMessage message, String reason) {
+        failures.increment();
+        log.error("Donation message dropped after {} attempts: {}", message.attempts, reason);
+        outstanding.release();
+        message.result.completeExceptionally(new AmqpException("Donation message not confirmed: " + reason));
+    }
+
+    /**
+     * Stops accepting messages and retries, publishes what is queued or waiting for a retry, and waits for
+     * the outstanding confirms. Messages the publisher thread could not send before it stopped are failed.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Delayed retries would otherwise be queued after the publisher thread has exited
+        retryScheduler.shutdownNow();
+        for (PendingMessage message : List.copyOf(retrying)) {
+            if (retrying.remove(message)) {
+                queue.add(message);
+            }
+        }
+        running = false;
+
+        publisherThread.join(shutdownTimeoutMs);
+        List<PendingMessage> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        for (PendingMessage message : unsent) {
+            fail(message, "publisher stopped before sending it");
+        }
+
+        if (!outstanding.tryAcquire(maxOutstanding, shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("{} donation messages still unconfirmed at shutdown", maxOutstanding - outstanding.availablePermits());
+        }
+    }
+
+    private static class PendingMessage {
+        private final String exchange;
+        private final String routingKey;
+        private final Object payload;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private volatile int attempts;
+        private volatile long sentAtNanos;
 
-    public void sendDonation(DonationDTO donationDTO) {
-        rabbitTemplate.convertAndSend("donation-exchange", "donation.shared", donationDTO);
-        log.info("Donation message sent to exchange with routing key 'donation.shared'");
+        private PendingMessage(String exchange, String routingKey, Object payload) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.payload = payload;
+        }
     }
-}
\ No newline at end of file
+}
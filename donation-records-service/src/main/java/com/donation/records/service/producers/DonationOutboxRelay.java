@@ -0,0 +1,182 @@
+package com.donation.records.service.producers;
+
+import com.donation.records.service.entities.OutboxEvent;
+import com.donation.records.service.models.DonationDTO;
+import com.donation.records.service.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox rows to RabbitMQ in id order through {@link DonationMsgProducer}. Each batch is
+ * claimed for {@code claim-timeout-ms} in a short transaction, published with no transaction or row lock
+ * held, and the rows the broker confirmed are marked sent in a second transaction; anything that ends up
+ * unconfirmed is released and retried on the next run. Delivery is at-least-once: a crash after publishing
+ * but before the rows are marked sent republishes them once the claim expires, so consumers should
+ * de-duplicate on the donation id.
+ * <p>
+ * A row whose payload cannot be read, or which the broker has not confirmed {@code max-attempts} times, is
+ * parked with {@code failed_at} so it stops being claimed. A publisher that refuses messages outright
+ * (backlog full, stopped, broker unreachable) costs no attempt, so an outage does not park healthy rows.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DonationOutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final DonationMsgProducer donationMsgProducer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${donation.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${donation.outbox.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${donation.outbox.claim-timeout-ms:60000}")
+    private long claimTimeoutMs;
+
+    @Value("${donation.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${donation.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    @Scheduled(fixedDelayString = "${donation.outbox.poll-interval-ms:200}")
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    private int relayBatch() {
+        // Postgres keeps microseconds, and the claim is matched by equality when it is released
+        LocalDateTime claimedUntil = LocalDateTime.now().plus(claimTimeoutMs, ChronoUnit.MILLIS).truncatedTo(ChronoUnit.MICROS);
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claimBatch(claimedUntil));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> published = new ArrayList<>(events.size());
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(events.size());
+        List<Long> failed = new ArrayList<>();
+        List<Long> exhausted = new ArrayList<>();
+        List<Long> unreadable = new ArrayList<>();
+        boolean publisherFailed = false;
+        int attempted = 0;
+
+        while (attempted < events.size()) {
+            OutboxEvent event = events.get(attempted);
+            try {
+                DonationDTO donationDTO = objectMapper.readValue(event.getPayload(), DonationDTO.class);
+                confirms.add(donationMsgProducer.publish(event.getExchange(), event.getRoutingKey(), donationDTO));
+                published.add(event);
+            } catch (JsonProcessingException e) {
+                log.error("Outbox event {} has an unreadable payload, parking it", event.getId(), e);
+                unreadable.add(event.getId());
+            } catch (Exception e) {
+                // Not the row's fault: it and the rest of the batch are released without an attempt
+                log.warn("Failed to publish outbox event {}: {}", event.getId(), e.getMessage());
+                publisherFailed = true;
+                break;
+            }
+            attempted++;
+        }
+
+        // The producer retries nacks itself; a row is marked sent only once its message is confirmed
+        List<Long> sent = new ArrayList<>(published.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (int i = 0; i < published.size(); i++) {
+            Long id = published.get(i).getId();
+            if (isConfirmed(id, confirms.get(i), deadline)) {
+                sent.add(id);
+            } else {
+                failed.add(id);
+                if (published.get(i).getAttempts() + 1 >= maxAttempts) {
+                    exhausted.add(id);
+                }
+            }
+        }
+
+        List<Long> skipped = events.subList(attempted, events.size()).stream().map(OutboxEvent::getId).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!sent.isEmpty()) {
+                outboxEventRepository.markSent(sent, now);
+            }
+            if (!failed.isEmpty()) {
+                outboxEventRepository.incrementAttempts(failed, claimedUntil, maxAttempts, now);
+            }
+            if (!unreadable.isEmpty()) {
+                outboxEventRepository.markFailed(unreadable, claimedUntil, now);
+            }
+            if (!skipped.isEmpty()) {
+                outboxEventRepository.release(skipped, claimedUntil);
+            }
+        });
+        if (!exhausted.isEmpty()) {
+            log.error("Outbox events {} not confirmed after {} attempts, parking them", exhausted, maxAttempts);
+        }
+        if (failed.size() > exhausted.size()) {
+            log.warn("{} outbox events not confirmed, will retry", failed.size() - exhausted.size());
+        }
+        log.debug("Relayed {} of {} outbox events", sent.size(), events.size());
+
+        // A short batch ends the drain loop, so a failing broker is retried on the next poll instead of spinning
+        return failed.isEmpty() && !publisherFailed ? events.size() : 0;
+    }
+
+    /**
+     * Locks the next claimable rows and claims them until {@code claimedUntil}. The row locks end when this
+     * short transaction commits, so publishing and waiting for confirms hold neither a lock nor a connection.
+     */
+    private List<OutboxEvent> claimBatch(LocalDateTime claimedUntil) {
+        List<OutboxEvent> events = outboxEventRepository.lockClaimable(LocalDateTime.now(), batchSize);
+        if (!events.isEmpty()) {
+            outboxEventRepository.claim(events.stream().map(OutboxEvent::getId).toList(), claimedUntil);
+        }
+        return events;
+    }
+
+    private boolean isConfirmed(Long eventId, CompletableFuture<Void> confirm, long deadlineNanos) {
+        try {
+            confirm.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            log.warn("Outbox event {} not confirmed within {} ms", eventId, confirmTimeoutMs);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            log.warn("Outbox event {} not delivered: {}", eventId, e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${donation.outbox.cleanup-interval-ms:3600000}")
+    public void deleteSentEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} sent outbox events older than {} hours", deleted, retentionHours);
+        }
+    }
+}
@@ -3,8 +3,5 @@ package com.donation.records.service.repositories;
 import com.donation.records.service.entities.Donation;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.List;
-
 public interface DonationRepository extends JpaRepository<Donation, Long> {
-    List<Donation> findByDonorId(Long donorId);
 }
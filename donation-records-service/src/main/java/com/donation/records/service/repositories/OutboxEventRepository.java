@@ -0,0 +1,51 @@
+package com.donation.records.service.repositories;
+
+import com.donation.records.service.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED lets several relay instances claim disjoint batches without waiting on each other
+    @Query(value = "SELECT * FROM outbox_events WHERE sent_at IS NULL AND failed_at IS NULL " +
+            "AND (claimed_until IS NULL OR claimed_until < :now) " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.sentAt = :sentAt where e.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    // Releases the claim for the next poll, unless it expired and another relay has claimed the row since;
+    // a row reaching maxAttempts is parked instead
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.claimedUntil = null, " +
+            "e.failedAt = case when e.attempts + 1 >= :maxAttempts then :now else e.failedAt end " +
+            "where e.id in :ids and e.claimedUntil = :claimedUntil")
+    int incrementAttempts(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil,
+                          @Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.failedAt = :failedAt, e.claimedUntil = null " +
+            "where e.id in :ids and e.claimedUntil = :claimedUntil")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil,
+                   @Param("failedAt") LocalDateTime failedAt);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = null where e.id in :ids and e.claimedUntil = :claimedUntil")
+    int release(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,7 +1,12 @@
 package com.donation.records.service.repositories;
 
 import com.donation.records.service.entities.Score;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface ScoreRepository extends JpaRepository<Score, Long> {
-}
\ No newline at end of file
+
+    List<Score> findByOrderByScoreDescDonorIdAsc(Pageable pageable);
+}
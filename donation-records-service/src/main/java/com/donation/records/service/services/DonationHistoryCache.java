@@ -0,0 +1,146 @@
+package com.donation.records.service.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * LRU + TTL cache of the first history page per donor and page size, holding the serialized JSON
+ * response so hits are written out without touching Postgres or building objects. Bounded by the
+ * total size of the cached bytes rather than the entry count. A donor's pages are dropped when one
+ * of their donations commits; other instances of the service only see the change once the TTL expires.
+ */
+@Component
+@Slf4j
+public class DonationHistoryCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long ttlMillis;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    // donor id -> cached pages, in access order
+    private final LinkedHashMap<Long, Map<Integer, Page>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // Bumped on every invalidation so loads that raced with a new donation are not stored
+    private long generation;
+
+    public DonationHistoryCache(MeterRegistry meterRegistry,
+                                @Value("${donation.history-cache.enabled:true}") boolean enabled,
+                                @Value("${donation.history-cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${donation.history-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlSeconds * 1000;
+
+        this.meterRegistry = meterRegistry;
+        this.hits = meterRegistry.counter("donation.history.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("donation.history.cache.requests", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("donation.history.cache.evictions", "cause", "size");
+        this.expiredEvictions = meterRegistry.counter("donation.history.cache.evictions", "cause", "expired");
+        this.invalidations = meterRegistry.counter("donation.history.cache.evictions", "cause", "invalidated");
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        meterRegistry.gauge("donation.history.cache.donors", this, DonationHistoryCache::size);
+        meterRegistry.gauge("donation.history.cache.bytes", this, DonationHistoryCache::bytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    public byte[] get(Long donorId, int limit, Supplier<byte[]> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Map<Integer, Page> pages = entries.get(donorId);
+            Page page = pages != null ? pages.get(limit) : null;
+            if (page != null) {
+                if (page.expiresAt > System.currentTimeMillis()) {
+                    hits.increment();
+                    return page.json;
+                }
+                removePage(donorId, pages, limit);
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        byte[] json = loader.get();
+
+        synchronized (this) {
+            if (loadGeneration == generation && json.length <= maxBytes) {
+                Map<Integer, Page> pages = entries.computeIfAbsent(donorId, k -> new HashMap<>());
+                Page previous = pages.put(limit, new Page(json, System.currentTimeMillis() + ttlMillis));
+                totalBytes += json.length - (previous != null ? previous.json.length : 0);
+                evictToSize();
+            }
+        }
+        return json;
+    }
+
+    public synchronized void invalidateDonors(Collection<Long> donorIds) {
+        generation++;
+        for (Long donorId : donorIds) {
+            Map<Integer, Page> pages = entries.remove(donorId);
+            if (pages != null) {
+                for (Page page : pages.values()) {
+                    totalBytes -= page.json.length;
+                }
+                invalidations.increment(pages.size());
+            }
+        }
+    }
+
+    private void evictToSize() {
+        Iterator<Map<Integer, Page>> iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map<Integer, Page> pages = iterator.next();
+            for (Page page : pages.values()) {
+                totalBytes -= page.json.length;
+            }
+            sizeEvictions.increment(pages.size());
+            iterator.remove();
+        }
+    }
+
+    private void removePage(Long donorId, Map<Integer, Page> pages, int limit) {
+        Page removed = pages.remove(limit);
+        if (removed != null) {
+            totalBytes -= removed.json.length;
+        }
+        if (pages.isEmpty()) {
+            entries.remove(donorId);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Page {
+        private final byte[] json;
+        private final long expiresAt;
+    }
+}
@@ -2,15 +2,36 @@ package com.donation.records.service.services;
 
 import com.donation.records.service.entities.Donation;
 import com.donation.records.service.entities.SpecialCapability;
+import com.donation.records.service.models.BulkDonationResultDTO;
 import com.donation.records.service.models.DonationDTO;
 import com.donation.records.service.models.DonationHistoryDTO;
 import com.donation.records.service.producers.DonationMsgProducer;
 import com.donation.records.service.repositories.DonationRepository;
-import com.donation.records.service.repositories.ScoreRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -18,49 +39,52 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class DonationService {
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
+    // Keyset page on (donor_id, id); capabilities of the whole page come back in the same statement
+    private static final String HISTORY_PAGE_SQL = """
+SELECT d.id, d.donor_name, d.recipient_name, d.donation_name, d.type, d.quantity, d.unit,
+       d.donation_pickup_time, d.packaging_type, d.storage_capability,
+       ARRAY(SELECT c.capability FROM special_capability c WHERE c.donation_id = d.id ORDER BY c.id) AS special_capabilities
+FROM donations d
+WHERE d.donor_id = ? AND d.id < ?
+ORDER BY d.id DESC
+LIMIT ?
+""";
+
     private final DonationRepository donationRepository;
-    private final ScoreRepository scoresRepository;
+    private final DonorScoringService donorScoringService;
     private final DonationMsgProducer donationMsgProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DonationHistoryCache donationHistoryCache;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${donation.bulk.chunk-size:200}")
+    private int bulkChunkSize;
+
+    // The donation and its outbox event commit or roll back together
+    @Transactional(rollbackFor = Exception.class)
     public void createDonation(DonationDTO dto) throws Exception {
         try {
-            DonationDTO.Donor donor = dto.getDonor();
-            DonationDTO.Donation donation = dto.getDonation();
-            DonationDTO.Recipient recipient = dto.getRecipient();
-
-            Donation donationEntity = Donation.builder()
-                    .donorId(donor.getId())
-                    .donorName(donor.getName())
-                    .recipientId(recipient.getId())
-                    .recipientName(recipient.getName())
-                    .donationName(donation.getName())
-                    .type(donation.getType())
-                    .quantity(donation.getQuantity())
-                    .unit(donation.getUnit())
-                    .donationPickupTime(donation.getDonationPickupTime())
-                    .packagingType(donation.getPackagingType())
-                    .storageCapability(donation.getStorageCapability())
-                    .build();
-
-
-            List<SpecialCapability> capabilityEntities = donation.getSpecialCapabilities().stream()
-                    .map(cap -> SpecialCapability.builder()
-                            .capability(cap)
-                            .donation(donationEntity)
-                            .build())
-                    .collect(Collectors.toList());
-
-            donationEntity.setSpecialCapabilityList(capabilityEntities);
+            Donation donationEntity = toEntity(dto);
 
             // Save Donation (cascades SpecialCapability due to orphanRemoval=true)
             Donation savedDonation = donationRepository.save(donationEntity);
+            invalidateHistoryAfterCommit(savedDonation.getDonorId());
+            donorScoringService.recordDonations(List.of(savedDonation));
 
+            // Published by DonationOutboxRelay after commit, so the broker is not on the request path
             try {
                 dto.getDonation().setId(savedDonation.getId());
-                donationMsgProducer.sendDonation(dto);
+                donationMsgProducer.enqueueDonation(dto);
             } catch (Exception e) {
-                log.error("Failed to publish donation event for donation ID: {}", savedDonation.getId(), e);
-                throw new Exception("Failed to send donation event", e);
+                log.error("Failed to queue donation event for donation ID: {}", savedDonation.getId(), e);
+                throw new Exception("Failed to queue donation event", e);
             }
         }
         catch (Exception e) {
@@ -70,31 +94,217 @@ public class DonationService {
     }
 
 
-    public List<DonationHistoryDTO> fetchDonationHistory(Long donorId) {
-        List<Donation> donation = donationRepository.findByDonorId(donorId);
-        if (donation.isEmpty()) {
-            log.warn("No donations found for donor ID: {}", donorId);
-            return List.of(); // Return empty list if no donations found
+    private void invalidateHistoryAfterCommit(Long donorId) {
+        if (donorId == null) return;
+        // Invalidating before the commit would let a concurrent read cache the history without the new donation
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                donationHistoryCache.invalidateDonors(List.of(donorId));
+            }
+        });
+    }
+
+    /**
+     * Creates many donations at once. Entries are validated individually; valid ones are persisted in
+     * chunks, each chunk in one transaction with batched inserts for donations, their capabilities and
+     * their outbox events. A failed chunk fails only its own entries.
+     */
+    public List<BulkDonationResultDTO> createDonations(List<DonationDTO> dtos) {
+        List<BulkDonationResultDTO> results = new ArrayList<>(Collections.nCopies(dtos.size(), null));
+        List<Integer> chunk = new ArrayList<>(bulkChunkSize);
+
+        for (int i = 0; i < dtos.size(); i++) {
+            String error = validate(dtos.get(i));
+            if (error != null) {
+                results.set(i, new BulkDonationResultDTO(i, null, BulkDonationResultDTO.Status.FAILED, error));
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() >= bulkChunkSize) {
+                persistChunk(dtos, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(dtos, chunk, results);
+        }
+
+        long created = results.stream().filter(r -> r.getStatus() == BulkDonationResultDTO.Status.CREATED).count();
+        log.info("Bulk donation request: {} created, {} failed", created, dtos.size() - created);
+        return results;
+    }
+
+    private static String validate(DonationDTO dto) {
+        if (dto == null) return "donation entry is empty";
+        if (dto.getDonor() == null || dto.getDonor().getId() == null) return "donor.id is required";
+        if (dto.getRecipient() == null || dto.getRecipient().getId() == null) return "recipient.id is required";
+        if (dto.getDonation() == null) return "donation is required";
+        if (dto.getDonation().getName() == null || dto.getDonation().getName().isBlank()) return "donation.name is required";
+        return null;
+    }
+
+    private void persistChunk(List<DonationDTO> dtos, List<Integer> indexes, List<BulkDonationResultDTO> results) {
+        List<DonationDTO> chunkDtos = indexes.stream().map(dtos::get).toList();
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> {
+                // Sequence ids are assigned on saveAll; the inserts themselves are batched at flush
+                List<Donation> entities = donationRepository.saveAll(chunkDtos.stream().map(this::toEntity).toList());
+                for (int k = 0; k < entities.size(); k++) {
+                    chunkDtos.get(k).getDonation().setId(entities.get(k).getId());
+                }
+                donorScoringService.recordDonations(entities);
+                try {
+                    donationMsgProducer.enqueueDonations(chunkDtos);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("Failed to serialize donation event", e);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return entities.stream().map(Donation::getId).toList();
+            });
+
+            donationHistoryCache.invalidateDonors(chunkDtos.stream().map(dto -> dto.getDonor().getId()).distinct().toList());
+
+            for (int k = 0; k < indexes.size(); k++) {
+                int index = indexes.get(k);
+                results.set(index, new BulkDonationResultDTO(index, ids.get(k), BulkDonationResultDTO.Status.CREATED, null));
+            }
+        } catch (Exception e) {
+            log.error("Failed to persist chunk of {} donations", indexes.size(), e);
+            for (int k = 0; k < indexes.size(); k++) {
+                int index = indexes.get(k);
+                chunkDtos.get(k).getDonation().setId(null);
+                results.set(index, new BulkDonationResultDTO(index, null, BulkDonationResultDTO.Status.FAILED,
+                        "Failed to persist donation: " + e.getMessage()));
+            }
+        }
+    }
+
+    private Donation toEntity(DonationDTO dto) {
+        DonationDTO.Donor donor = dto.getDonor();
+        DonationDTO.Donation donation = dto.getDonation();
+        DonationDTO.Recipient recipient = dto.getRecipient();
+
+        Donation donationEntity = Donation.builder()
+                .donorId(donor.getId())
+                .donorName(donor.getName())
+                .recipientId(recipient.getId())
+                .recipientName(recipient.getName())
+                .donationName(donation.getName())
+                .type(donation.getType())
+                .quantity(donation.getQuantity())
+                .unit(donation.getUnit())
+                .donationPickupTime(donation.getDonationPickupTime())
+                .packagingType(donation.getPackagingType())
+                .storageCapability(donation.getStorageCapability())
+                .build();
+
+        List<String> capabilities = donation.getSpecialCapabilities() != null ? donation.getSpecialCapabilities() : List.of();
+        List<SpecialCapability> capabilityEntities = capabilities.stream()
+                .map(cap -> SpecialCapability.builder()
+                        .capability(cap)
+                        .donation(donationEntity)
+                        .build())
+                .collect(Collectors.toList());
+
+        donationEntity.setSpecialCapabilityList(capabilityEntities);
+        return donationEntity;
+    }
+
+    /**
+     * Validates the request, then returns a body that writes one page of the donor's history, newest first:
+     * {@code {"donations": [...], "next_cursor": "..."}}. Rows are written to the response as they are read;
+     * {@code next_cursor} is null on the last page.
+     */
+    public StreamingResponseBody streamDonationHistory(Long donorId, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        long beforeId = parseHistoryCursor(cursor);
+
+        // First pages are what the dashboard loads; they are rendered once and served from the cache
+        if (beforeId == Long.MAX_VALUE && donationHistoryCache.isEnabled()) {
+            byte[] json = donationHistoryCache.get(donorId, limit, () -> renderHistoryPage(donorId, limit));
+            return outputStream -> outputStream.write(json);
+        }
+
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                writeHistoryPage(generator, donorId, beforeId, limit);
+            }
+        };
+    }
+
+    private byte[] renderHistoryPage(Long donorId, int limit) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            writeHistoryPage(generator, donorId, Long.MAX_VALUE, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static long parseHistoryCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
         }
+    }
+
+    private void writeHistoryPage(JsonGenerator generator, Long donorId, long beforeId, int limit) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("donations");
+
+        // One extra row tells whether another page exists; it is read but not written
+        int[] written = {0};
+        Long[] lastId = {null};
+        boolean[] hasMore = {false};
+        jdbcTemplate.query(HISTORY_PAGE_SQL,
+                ps -> {
+                    ps.setLong(1, donorId);
+                    ps.setLong(2, beforeId);
+                    ps.setInt(3, limit + 1);
+                },
+                (RowCallbackHandler) rs -> {
+                    if (written[0] == limit) {
+                        hasMore[0] = true;
+                        return;
+                    }
+                    DonationHistoryDTO history = toHistoryDTO(rs);
+                    try {
+                        generator.writeObject(history);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written[0]++;
+                    lastId[0] = history.getId();
+                });
+
+        generator.writeEndArray();
+        generator.writeStringField("next_cursor", hasMore[0] ? String.valueOf(lastId[0]) : null);
+        generator.writeEndObject();
+        log.debug("Wrote {} donations of history for donor ID: {}", written[0], donorId);
+    }
 
-    return donation.stream().map(d -> {
-            DonationHistoryDTO history = new DonationHistoryDTO();
-            history.setId(d.getId());
-            history.setDonorName(d.getDonorName());
-            history.setRecipientName(d.getRecipientName());
-            history.setDonationName(d.getDonationName());
-            history.setType(d.getType());
-            history.setQuantity(d.getQuantity());
-            history.setUnit(d.getUnit());
-            history.setSpecialCapabilities(
-                    d.getSpecialCapabilityList().stream()
-                            .map(SpecialCapability::getCapability)
-                            .collect(Collectors.toList())
-            );
-            history.setDonationPickupTime(d.getDonationPickupTime());
-            history.setPackagingType(d.getPackagingType());
-            history.setStorageCapability(d.getStorageCapability());
-            return history;
-        }).collect(Collectors.toList());
+    private static DonationHistoryDTO toHistoryDTO(ResultSet rs) throws SQLException {
+        DonationHistoryDTO history = new DonationHistoryDTO();
+        history.setId(rs.getLong("id"));
+        history.setDonorName(rs.getString("donor_name"));
+        history.setRecipientName(rs.getString("recipient_name"));
+        history.setDonationName(rs.getString("donation_name"));
+        history.setType(rs.getString("type"));
+        history.setQuantity(rs.getInt("quantity"));
+        history.setUnit(rs.getString("unit"));
+        history.setSpecialCapabilities(Arrays.asList((String[]) rs.getArray("special_capabilities").getArray()));
+        history.setDonationPickupTime(rs.getString("donation_pickup_time"));
+        history.setPackagingType(rs.getString("packaging_type"));
+        history.setStorageCapability(rs.getString("storage_capability"));
+        return history;
     }
 }
@@ -0,0 +1,359 @@
+package com.donation.records.service.services;
+
+import com.donation.records.service.entities.Donation;
+import com.donation.records.service.entities.Score;
+import com.donation.records.service.models.DonorScoreDTO;
+import com.donation.records.service.repositories.ScoreRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Keeps per-donor aggregates in {@code scores}: donation count, total quantity, quantity per donation
+ * type and a weighted score ({@code donation-weight} per donation plus quantity times the type weight).
+ * <p>
+ * Creating donations adds their increments to the donor rows in the same transaction, so the aggregates
+ * never need a scan of {@code donations} on the request path. A background job walks all donors in
+ * chunks, resuming from its checkpoint, and rewrites their rows from the donations table, which also
+ * applies changed weights. The top {@code leaderboard-size} donors are kept in memory for the leaderboard.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DonorScoringService {
+
+    static final String UNKNOWN_TYPE = "unknown";
+
+    private static final String UPSERT_PREFIX = """
+INSERT INTO scores (donor_id, donor_name, donation_count, total_quantity, quantity_by_type, score, revision, updated_at)
+SELECT u.donor_id, u.donor_name, u.donation_count, u.total_quantity, u.quantity_by_type::jsonb, u.score, 1, now()
+FROM unnest(?::bigint[], ?::text[], ?::bigint[], ?::bigint[], ?::text[], ?::float8[])
+     AS u(donor_id, donor_name, donation_count, total_quantity, quantity_by_type, score)
+ORDER BY u.donor_id
+ON CONFLICT (donor_id) DO UPDATE SET
+    revision = COALESCE(scores.revision, 0) + 1,
+""";
+    private static final String RETURNING = """
+RETURNING donor_id, donor_name, donation_count, total_quantity, quantity_by_type::text, score, revision
+""";
+
+    // Adds the new donations on top of the current row
+    private static final String INCREMENT_SQL = UPSERT_PREFIX + """
+    donor_name = COALESCE(EXCLUDED.donor_name, scores.donor_name),
+    donation_count = COALESCE(scores.donation_count, 0) + EXCLUDED.donation_count,
+    total_quantity = COALESCE(scores.total_quantity, 0) + EXCLUDED.total_quantity,
+    quantity_by_type = COALESCE(scores.quantity_by_type, '{}'::jsonb) || (
+        SELECT COALESCE(jsonb_object_agg(t.key, COALESCE((scores.quantity_by_type ->> t.key)::bigint, 0) + t.value::bigint), '{}'::jsonb)
+        FROM jsonb_each_text(EXCLUDED.quantity_by_type) t),
+    score = COALESCE(scores.score, 0) + EXCLUDED.score,
+    updated_at = EXCLUDED.updated_at
+""" + RETURNING;
+
+    // Replaces the row with totals recomputed from the donations table
+    private static final String REPLACE_SQL = UPSERT_PREFIX + """
+    donor_name = EXCLUDED.donor_name,
+    donation_count = EXCLUDED.donation_count,
+    total_quantity = EXCLUDED.total_quantity,
+    quantity_by_type = EXCLUDED.quantity_by_type,
+    score = EXCLUDED.score,
+    updated_at = EXCLUDED.updated_at
+""" + RETURNING;
+
+    private static final String NEXT_DONORS_SQL =
+            "SELECT DISTINCT donor_id FROM donations WHERE donor_id > ? ORDER BY donor_id LIMIT ?";
+    // Creates empty rows for donors without one and locks all rows, in donor_id order like the increments.
+    // A FOR UPDATE select could not lock a row that does not exist yet.
+    private static final String LOCK_SCORES_SQL = """
+INSERT INTO scores (donor_id, donation_count, total_quantity, quantity_by_type, score, revision, updated_at)
+SELECT u.donor_id, 0, 0, '{}'::jsonb, 0, 0, now()
+FROM unnest(?::bigint[]) AS u(donor_id)
+ORDER BY u.donor_id
+ON CONFLICT (donor_id) DO UPDATE SET updated_at = scores.updated_at
+""";
+    // Null types are grouped as UNKNOWN_TYPE, same as the incremental path
+    private static final String AGGREGATE_SQL = """
+SELECT donor_id, COALESCE(type, 'unknown') AS type, COUNT(*) AS donations, COALESCE(SUM(quantity), 0) AS quantity,
+       MAX(id) AS last_id, (ARRAY_AGG(donor_name ORDER BY id DESC))[1] AS donor_name
+FROM donations
+WHERE donor_id = ANY(?)
+GROUP BY 1, 2
+""";
+
+    private static final Comparator<DonorScoreDTO> RANKING = Comparator
+            .comparingDouble(DonorScoreDTO::getScore).reversed()
+            .thenComparing(DonorScoreDTO::getDonorId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScoreRepository scoreRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${donation.scoring.donation-weight:10}")
+    private double donationWeight;
+
+    @Value("${donation.scoring.default-type-weight:1.0}")
+    private double defaultTypeWeight;
+
+    @Value("#{${donation.scoring.type-weights:{:}}}")
+    private Map<String, Double> typeWeights;
+
+    @Value("${donation.scoring.recompute-chunk-size:500}")
+    private int recomputeChunkSize;
+
+    @Value("${donation.scoring.leaderboard-size:1000}")
+    private int leaderboardSize;
+
+    // Guarded by this
+    private final TreeSet<DonorScoreDTO> leaderboard = new TreeSet<>(RANKING);
+    private final Map<Long, DonorScoreDTO> ranked = new HashMap<>();
+
+    // Last donor id recomputed in the current pass; a pass restarts from 0 once all donors are done
+    private volatile long recomputeCheckpoint;
+
+    /**
+     * Adds the donations to their donors' aggregates. Must run inside the transaction that creates them;
+     * the in-memory leaderboard is updated once that transaction commits.
+     */
+    public void recordDonations(List<Donation> donations) {
+        // Sorted, so concurrent upserts and the recompute lock rows in the same order
+        Map<Long, Totals> increments = new TreeMap<>();
+        for (Donation donation : donations) {
+            if (donation.getDonorId() == null) continue;
+            int quantity = donation.getQuantity() != null ? donation.getQuantity() : 0;
+            increments.computeIfAbsent(donation.getDonorId(), k -> new Totals())
+                    .add(typeOf(donation.getType()), 1, quantity, donation.getId(), donation.getDonorName());
+        }
+        if (increments.isEmpty()) return;
+
+        List<DonorScoreDTO> updated = upsert(INCREMENT_SQL, increments);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(updated);
+                }
+            });
+        } else {
+            offer(updated);
+        }
+    }
+
+    public synchronized List<DonorScoreDTO> topDonors(int limit) {
+        List<DonorScoreDTO> top = new ArrayList<>(Math.min(limit, leaderboard.size()));
+        for (DonorScoreDTO standing : leaderboard) {
+            if (top.size() == limit) break;
+            top.add(standing);
+        }
+        return top;
+    }
+
+    public int getLeaderboardSize() {
+        return leaderboardSize;
+    }
+
+    /**
+     * Recomputes the next chunk of donors from the donations table. Their score rows are locked before
+     * the donations are read, inserting empty rows for donors that have none yet, so a concurrent create
+     * either committed first and is counted, or waits and applies its increment on top of the recomputed
+     * row. Rows are locked in donor_id order, the order increments use, so the two cannot deadlock.
+     */
+    @Scheduled(fixedDelayString = "${donation.scoring.recompute-interval-ms:10000}")
+    public void recomputeNextChunk() {
+        long from = recomputeCheckpoint;
+        long[] lastDonorId = {from};
+
+        List<DonorScoreDTO> recomputed = transactionTemplate.execute(status -> {
+            List<Long> donorIds = jdbcTemplate.queryForList(NEXT_DONORS_SQL, Long.class, from, recomputeChunkSize);
+            if (donorIds.isEmpty()) {
+                return null;
+            }
+            lastDonorId[0] = donorIds.get(donorIds.size() - 1);
+
+            jdbcTemplate.update(LOCK_SCORES_SQL, ps -> setBigintArray(ps, 1, donorIds));
+
+            Map<Long, Totals> totals = new TreeMap<>();
+            jdbcTemplate.query(AGGREGATE_SQL, ps -> setBigintArray(ps, 1, donorIds), rs -> {
+                totals.computeIfAbsent(rs.getLong("donor_id"), k -> new Totals())
+                        .add(rs.getString("type"), rs.getLong("donations"), rs.getLong("quantity"),
+                                rs.getLong("last_id"), rs.getString("donor_name"));
+            });
+            return upsert(REPLACE_SQL, totals);
+        });
+
+        if (recomputed == null) {
+            // Pass complete: start over and resync the leaderboard with the table
+            if (from > 0) {
+                log.info("Donor score recompute pass complete");
+            }
+            recomputeCheckpoint = 0;
+            reloadLeaderboard();
+            return;
+        }
+
+        recomputeCheckpoint = lastDonorId[0];
+        offer(recomputed);
+        log.debug("Recomputed scores of {} donors up to donor ID: {}", recomputed.size(), lastDonorId[0]);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadLeaderboard() {
+        List<Score> top = scoreRepository.findByOrderByScoreDescDonorIdAsc(PageRequest.of(0, leaderboardSize));
+        synchronized (this) {
+            Map<Long, DonorScoreDTO> previous = new HashMap<>(ranked);
+            leaderboard.clear();
+            ranked.clear();
+            for (Score score : top) {
+                if (score.getDonorId() == null || score.getScore() == null) continue;
+                DonorScoreDTO standing = new DonorScoreDTO(score.getDonorId(), score.getDonorName(),
+                        orZero(score.getDonationCount()), orZero(score.getTotalQuantity()),
+                        score.getQuantityByType() != null ? score.getQuantityByType() : Map.of(), score.getScore(),
+                        orZero(score.getRevision()));
+                // A commit offered while the page was being read is newer than the row read
+                DonorScoreDTO tracked = previous.get(standing.getDonorId());
+                if (tracked != null && tracked.getRevision() > standing.getRevision()) {
+                    standing = tracked;
+                }
+                leaderboard.add(standing);
+                ranked.put(standing.getDonorId(), standing);
+            }
+        }
+        log.debug("Loaded {} donors into the leaderboard", top.size());
+    }
+
+    /**
+     * Replaces the donors' standings. Donors outside the leaderboard enter only if they beat its last
+     * entry; a tracked donor whose score drops may rank above untracked ones until the next reload.
+     * Offers run after their commits but not necessarily in commit order, so a standing older than the
+     * tracked one (a lower row revision) is dropped.
+     */
+    private synchronized void offer(List<DonorScoreDTO> standings) {
+        for (DonorScoreDTO standing : standings) {
+            DonorScoreDTO previous = ranked.get(standing.getDonorId());
+            if (previous != null && previous.getRevision() >= standing.getRevision()) {
+                continue;
+            }
+            if (previous != null) {
+                ranked.remove(standing.getDonorId());
+                leaderboard.remove(previous);
+            } else if (leaderboard.size() >= leaderboardSize
+                    && RANKING.compare(standing, leaderboard.last()) >= 0) {
+                continue;
+            }
+
+            leaderboard.add(standing);
+            ranked.put(standing.getDonorId(), standing);
+            if (leaderboard.size() > leaderboardSize) {
+                ranked.remove(leaderboard.pollLast().getDonorId());
+            }
+        }
+    }
+
+    private List<DonorScoreDTO> upsert(String sql, Map<Long, Totals> totalsByDonor) {
+        int size = totalsByDonor.size();
+        Long[] donorIds = new Long[size];
+        String[] donorNames = new String[size];
+        Long[] donationCounts = new Long[size];
+        Long[] totalQuantities = new Long[size];
+        String[] quantitiesByType = new String[size];
+        Double[] scores = new Double[size];
+
+        int i = 0;
+        for (Map.Entry<Long, Totals> entry : totalsByDonor.entrySet()) {
+            Totals totals = entry.getValue();
+            donorIds[i] = entry.getKey();
+            donorNames[i] = totals.donorName;
+            donationCounts[i] = totals.donations;
+            totalQuantities[i] = totals.quantity;
+            quantitiesByType[i] = toJson(totals.quantityByType);
+            scores[i] = score(totals);
+            i++;
+        }
+
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", donorIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", donorNames));
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", donationCounts));
+            ps.setArray(4, ps.getConnection().createArrayOf("bigint", totalQuantities));
+            ps.setArray(5, ps.getConnection().createArrayOf("text", quantitiesByType));
+            ps.setArray(6, ps.getConnection().createArrayOf("float8", scores));
+        }, (rs, rowNum) -> toStanding(rs));
+    }
+
+    private DonorScoreDTO toStanding(ResultSet rs) throws SQLException {
+        Map<String, Long> quantityByType;
+        try {
+            quantityByType = objectMapper.readValue(rs.getString(5), new TypeReference<Map<String, Long>>() {});
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Invalid quantity_by_type for donor " + rs.getLong(1), e);
+        }
+        return new DonorScoreDTO(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4),
+                quantityByType, rs.getDouble(6), rs.getLong(7));
+    }
+
+    private double score(Totals totals) {
+        double score = totals.donations * donationWeight;
+        for (Map.Entry<String, Long> entry : totals.quantityByType.entrySet()) {
+            score += entry.getValue() * typeWeights.getOrDefault(entry.getKey(), defaultTypeWeight);
+        }
+        return score;
+    }
+
+    private String toJson(Map<String, Long> quantityByType) {
+        try {
+            return objectMapper.writeValueAsString(quantityByType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize quantity_by_type", e);
+        }
+    }
+
+    private static void setBigintArray(PreparedStatement ps, int index, List<Long> values) throws SQLException {
+        Array array = ps.getConnection().createArrayOf("bigint", values.toArray());
+        ps.setArray(index, array);
+    }
+
+    private static String typeOf(String type) {
+        return type != null ? type : UNKNOWN_TYPE;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    private static class Totals {
+        private long donations;
+        private long quantity;
+        private final Map<String, Long> quantityByType = new HashMap<>();
+        // Name from the donor's highest donation id seen
+        private String donorName;
+        private long donorNameId = Long.MIN_VALUE;
+
+        private void add(String type, long donations, long quantity, Long donationId, String donorName) {
+            this.donations += donations;
+            this.quantity += quantity;
+            quantityByType.merge(type, quantity, Long::sum);
+            long id = donationId != null ? donationId : Long.MIN_VALUE;
+            if (donorName != null && id >= donorNameId) {
+                this.donorName = donorName;
+                this.donorNameId = id;
+            }
+        }
+    }
+}
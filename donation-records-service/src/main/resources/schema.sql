@@ -0,0 +1,22 @@
+-- Runs after Hibernate has created/updated the tables (spring.jpa.defer-datasource-initialization=true).
+-- Every statement must be idempotent.
+
+-- Ids moved from IDENTITY to pooled sequences; start the sequences past the ids already in use
+SELECT setval('donations_seq', (SELECT MAX(id) FROM donations))
+WHERE (SELECT MAX(id) FROM donations) >= (SELECT last_value FROM donations_seq);
+
+SELECT setval('special_capability_seq', (SELECT MAX(id) FROM special_capability))
+WHERE (SELECT MAX(id) FROM special_capability) >= (SELECT last_value FROM special_capability_seq);
+
+SELECT setval('outbox_events_seq', (SELECT MAX(id) FROM outbox_events))
+WHERE (SELECT MAX(id) FROM outbox_events) >= (SELECT last_value FROM outbox_events_seq);
+
+-- Keyset pagination of a donor's history and per-donation capability lookup
+CREATE INDEX IF NOT EXISTS idx_donations_donor_id_id ON donations (donor_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_special_capability_donation_id ON special_capability (donation_id);
+
+-- One aggregate row per donor (upserted on donor_id) and the leaderboard reload order
+CREATE UNIQUE INDEX IF NOT EXISTS idx_scores_donor_id ON scores (donor_id);
+
+CREATE INDEX IF NOT EXISTS idx_scores_score_donor_id ON scores (score DESC, donor_id);
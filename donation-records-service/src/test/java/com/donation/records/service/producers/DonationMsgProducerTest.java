@@ -0,0 +1,113 @@
+package com.donation.records.service.producers;
+
+import com.donation.records.service.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Shutdown must leave no message pending: retries waiting for their delay are published or failed,
+ * and every permit is released.
+ */
+class DonationMsgProducerTest {
+
+    private static final int MAX_OUTSTANDING = 10;
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private DonationMsgProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+
+        producer = new DonationMsgProducer(rabbitTemplate, mock(OutboxEventRepository.class), new ObjectMapper(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(producer, "batchSize", 10);
+        ReflectionTestUtils.setField(producer, "lingerMs", 1L);
+        ReflectionTestUtils.setField(producer, "maxOutstanding", MAX_OUTSTANDING);
+        ReflectionTestUtils.setField(producer, "backpressureTimeoutMs", 100L);
+        ReflectionTestUtils.setField(producer, "maxRetries", 5);
+        // Far longer than the test, so a retry is only ever sent because stop() requeued it
+        ReflectionTestUtils.setField(producer, "retryBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(producer, "shutdownTimeoutMs", 2_000L);
+        producer.start();
+    }
+
+    @Test
+    void stopPublishesRetriesStillWaitingForTheirDelay() throws Exception {
+        // The first send fails, the retry succeeds
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            if (invocations.getAndIncrement() == 0) {
+                throw new AmqpConnectException(new RuntimeException("connection refused"));
+            }
+            RabbitOperations.OperationsCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRabbit(operations);
+        });
+
+        CompletableFuture<Void> result = producer.publish("exchange", "key", "payload");
+        await().atMost(2, TimeUnit.SECONDS).until(() -> invocations.get() == 1);
+        assertThat(result).isNotDone();
+
+        producer.stop();
+
+        assertThat(result).isCompleted();
+        verify(operations).convertAndSend(any(String.class), any(String.class), any(Object.class), any(CorrelationData.class));
+        assertThat(allPermitsReturned()).isTrue();
+    }
+
+    @Test
+    void stopFailsRetriesTheBrokerStillRejects() throws Exception {
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation -> {
+            invocations.incrementAndGet();
+            throw new AmqpConnectException(new RuntimeException("connection refused"));
+        });
+
+        CompletableFuture<Void> result = producer.publish("exchange", "key", "payload");
+        await().atMost(2, TimeUnit.SECONDS).until(() -> invocations.get() == 1);
+
+        producer.stop();
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(invocations).hasValue(2);
+        assertThat(allPermitsReturned()).isTrue();
+    }
+
+    @Test
+    void publishAfterStopIsRejected() throws Exception {
+        producer.stop();
+
+        assertThatThrownBy(() -> producer.publish("exchange", "key", "payload"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("stopped");
+    }
+
+    /**
+     * stop() ends by taking every permit back, which only succeeds once each message has been settled.
+     */
+    private boolean allPermitsReturned() {
+        Semaphore outstanding = (Semaphore) ReflectionTestUtils.getField(producer, "outstanding");
+        return outstanding.availablePermits() == 0 && !outstanding.hasQueuedThreads();
+    }
+}
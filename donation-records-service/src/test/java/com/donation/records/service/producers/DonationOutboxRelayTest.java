@@ -0,0 +1,148 @@
+package com.donation.records.service.producers;
+
+import com.donation.records.service.entities.OutboxEvent;
+import com.donation.records.service.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.AmqpException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DonationOutboxRelayTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final DonationMsgProducer donationMsgProducer = mock(DonationMsgProducer.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private DonationOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        relay = new DonationOutboxRelay(outboxEventRepository, donationMsgProducer, new ObjectMapper(),
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "confirmTimeoutMs", 100L);
+        ReflectionTestUtils.setField(relay, "claimTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+    }
+
+    @Test
+    void publishesBetweenClaimAndMarkTransactions() {
+        when(outboxEventRepository.lockClaimable(any(), eq(10))).thenReturn(List.of(event(1L), event(2L)));
+        when(donationMsgProducer.publish(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(transactionManager, outboxEventRepository, donationMsgProducer);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxEventRepository).lockClaimable(any(), eq(10));
+        inOrder.verify(outboxEventRepository).claim(eq(List.of(1L, 2L)), any());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(donationMsgProducer, times(2)).publish(eq("donation-exchange"), eq("donation.shared"), any());
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any());
+        inOrder.verify(transactionManager).commit(any());
+        verify(outboxEventRepository, never()).incrementAttempts(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void unconfirmedEventsAreReleasedWithAnAttempt() {
+        when(outboxEventRepository.lockClaimable(any(), eq(10))).thenReturn(List.of(event(1L), event(2L)));
+        when(donationMsgProducer.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("nack")));
+
+        relay.relay();
+
+        ArgumentCaptor<LocalDateTime> claimedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).claim(eq(List.of(1L, 2L)), claimedUntil.capture());
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+        verify(outboxEventRepository).incrementAttempts(eq(List.of(2L)), eq(claimedUntil.getValue()), eq(3), any());
+        assertThat(claimedUntil.getValue()).isAfter(LocalDateTime.now().plusSeconds(50));
+    }
+
+    @Test
+    void publishFailureReleasesTheRestOfTheBatchWithoutAnAttempt() {
+        when(outboxEventRepository.lockClaimable(any(), eq(10))).thenReturn(List.of(event(1L), event(2L), event(3L)));
+        when(donationMsgProducer.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenThrow(new IllegalStateException("Donation publisher backlog is full"));
+
+        relay.relay();
+
+        verify(donationMsgProducer, times(2)).publish(any(), any(), any());
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+        verify(outboxEventRepository, never()).incrementAttempts(any(), any(), anyInt(), any());
+        verify(outboxEventRepository).release(eq(List.of(2L, 3L)), any());
+    }
+
+    @Test
+    void unreadablePayloadIsParkedAndTheBatchContinues() {
+        OutboxEvent poison = event(2L);
+        poison.setPayload("{not json");
+        when(outboxEventRepository.lockClaimable(any(), eq(10))).thenReturn(List.of(event(1L), poison, event(3L)));
+        when(donationMsgProducer.publish(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        ArgumentCaptor<LocalDateTime> claimedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).claim(eq(List.of(1L, 2L, 3L)), claimedUntil.capture());
+        verify(donationMsgProducer, times(2)).publish(any(), any(), any());
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 3L)), any());
+        verify(outboxEventRepository).markFailed(eq(List.of(2L)), eq(claimedUntil.getValue()), any());
+        verify(outboxEventRepository, never()).incrementAttempts(any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void repeatedlyUnconfirmedEventIsParkedAtMaxAttempts() {
+        OutboxEvent poison = event(1L);
+        poison.setAttempts(2);
+        when(outboxEventRepository.lockClaimable(any(), eq(10))).thenReturn(List.of(poison));
+        when(donationMsgProducer.publish(any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("nack")));
+
+        relay.relay();
+
+        // The third unconfirmed attempt of three sets failed_at in the same update
+        verify(outboxEventRepository).incrementAttempts(eq(List.of(1L)), any(), eq(3), any());
+        verify(outboxEventRepository, never()).markSent(any(), any());
+        verify(outboxEventRepository, times(1)).lockClaimable(any(), anyInt());
+    }
+
+    @Test
+    void fullBatchesAreDrainedUntilAShortOne() {
+        List<OutboxEvent> full = List.of(event(1L), event(2L), event(3L), event(4L), event(5L),
+                event(6L), event(7L), event(8L), event(9L), event(10L));
+        when(outboxEventRepository.lockClaimable(any(), eq(10))).thenReturn(full).thenReturn(List.of(event(11L)));
+        when(donationMsgProducer.publish(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxEventRepository, times(2)).lockClaimable(any(), eq(10));
+        verify(outboxEventRepository).markSent(eq(List.of(11L)), any());
+    }
+
+    private static OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .exchange("donation-exchange")
+                .routingKey("donation.shared")
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.donation.records.service.services;
+
+import com.donation.records.service.producers.DonationMsgProducer;
+import com.donation.records.service.repositories.DonationRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Array;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The history endpoint answers {@code {"donations": [...], "next_cursor": ...}}, which the dashboard pages through.
+ */
+class DonationHistoryPageTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DonationService donationService = new DonationService(mock(DonationRepository.class),
+            mock(DonorScoringService.class), mock(DonationMsgProducer.class), mock(TransactionTemplate.class),
+            jdbcTemplate, objectMapper, mock(DonationHistoryCache.class));
+
+    @Test
+    void emptyHistoryIsAnEmptyPage() throws Exception {
+        rows(0);
+
+        JsonNode page = page(50, null);
+
+        assertThat(page.get("donations").isArray()).isTrue();
+        assertThat(page.get("donations")).isEmpty();
+        assertThat(page.get("next_cursor").isNull()).isTrue();
+    }
+
+    @Test
+    void fullPageCarriesTheCursorOfItsLastDonation() throws Exception {
+        // ids 30, 29, 28: the third row only signals that another page exists
+        rows(3);
+
+        JsonNode page = page(2, null);
+
+        assertThat(page.get("donations")).hasSize(2);
+        assertThat(page.get("donations").get(1).get("id").asLong()).isEqualTo(29L);
+        assertThat(page.get("next_cursor").asText()).isEqualTo("29");
+    }
+
+    @Test
+    void lastPageHasNoCursor() throws Exception {
+        rows(2);
+
+        JsonNode page = page(2, "31");
+
+        assertThat(page.get("donations")).hasSize(2);
+        assertThat(page.get("next_cursor").isNull()).isTrue();
+    }
+
+    private JsonNode page(int limit, String cursor) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        donationService.streamDonationHistory(7L, limit, cursor).writeTo(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private void rows(int count) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (int i = 0; i < count; i++) {
+                handler.processRow(row(30L - i));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet row(long id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        Array capabilities = mock(Array.class);
+        when(capabilities.getArray()).thenReturn(new String[]{"refrigerated"});
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString(anyString())).thenReturn("value");
+        when(rs.getArray("special_capabilities")).thenReturn(capabilities);
+        return rs;
+    }
+}
@@ -0,0 +1,143 @@
+package com.donation.records.service.services;
+
+import com.donation.records.service.entities.Donation;
+import com.donation.records.service.models.DonorScoreDTO;
+import com.donation.records.service.repositories.ScoreRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DonorScoringServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private DonorScoringService donorScoringService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        donorScoringService = new DonorScoringService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                mock(ScoreRepository.class), new ObjectMapper());
+        ReflectionTestUtils.setField(donorScoringService, "donationWeight", 10.0);
+        ReflectionTestUtils.setField(donorScoringService, "defaultTypeWeight", 1.0);
+        ReflectionTestUtils.setField(donorScoringService, "typeWeights", Map.of());
+        ReflectionTestUtils.setField(donorScoringService, "recomputeChunkSize", 500);
+        ReflectionTestUtils.setField(donorScoringService, "leaderboardSize", 2);
+    }
+
+    @Test
+    void incrementsAreUpsertedInDonorIdOrder() throws Exception {
+        upsertReturns();
+
+        donorScoringService.recordDonations(List.of(donation(1L, 30L), donation(2L, 10L), donation(3L, 20L), donation(4L, 10L)));
+
+        assertThat(upsertedDonorIds()).containsExactly(10L, 20L, 30L);
+    }
+
+    @Test
+    void recomputeCreatesAndLocksRowsBeforeReadingDonations() throws Exception {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(500))).thenReturn(List.of(3L, 5L));
+        upsertReturns();
+
+        donorScoringService.recomputeNextChunk();
+
+        ArgumentCaptor<String> lockSql = ArgumentCaptor.forClass(String.class);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update(lockSql.capture(), any(PreparedStatementSetter.class));
+        inOrder.verify(jdbcTemplate).query(contains("FROM donations"), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        assertThat(lockSql.getValue())
+                .contains("INSERT INTO scores")
+                .contains("ORDER BY u.donor_id")
+                .contains("ON CONFLICT (donor_id) DO UPDATE");
+    }
+
+    @Test
+    void leaderboardKeepsTheBestDonorsAndReranksUpdates() {
+        upsertReturns(standing(1L, 50), standing(2L, 30), standing(3L, 40));
+        donorScoringService.recordDonations(List.of(donation(1L, 1L)));
+
+        assertThat(donorScoringService.topDonors(10)).extracting(DonorScoreDTO::getDonorId).containsExactly(1L, 3L);
+
+        upsertReturns(standing(2L, 60));
+        donorScoringService.recordDonations(List.of(donation(2L, 2L)));
+
+        assertThat(donorScoringService.topDonors(10)).extracting(DonorScoreDTO::getDonorId).containsExactly(2L, 1L);
+        assertThat(donorScoringService.topDonors(1)).extracting(DonorScoreDTO::getDonorId).containsExactly(2L);
+    }
+
+    @Test
+    void staleRecomputeDoesNotOverwriteANewerIncrement() {
+        upsertReturns(standing(1L, 80, 3));
+        donorScoringService.recordDonations(List.of(donation(1L, 1L)));
+
+        // Recomputed at revision 2, offered after the increment that committed on top of it
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(0L), eq(500))).thenReturn(List.of(1L));
+        upsertReturns(standing(1L, 50, 2));
+        donorScoringService.recomputeNextChunk();
+
+        assertThat(donorScoringService.topDonors(10)).singleElement()
+                .satisfies(standing -> assertThat(standing.getScore()).isEqualTo(80));
+
+        upsertReturns(standing(1L, 90, 4));
+        donorScoringService.recordDonations(List.of(donation(2L, 1L)));
+
+        assertThat(donorScoringService.topDonors(10)).singleElement()
+                .satisfies(standing -> assertThat(standing.getScore()).isEqualTo(90));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void upsertReturns(DonorScoreDTO... standings) {
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenReturn(List.of(standings));
+    }
+
+    /**
+     * Runs the captured upsert's parameter setter and returns the donor id array it binds.
+     */
+    @SuppressWarnings("unchecked")
+    private Object[] upsertedDonorIds() throws Exception {
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).query(contains("INSERT INTO scores"), setter.capture(), any(RowMapper.class));
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(ps.getConnection()).thenReturn(connection);
+        setter.getValue().setValues(ps);
+
+        ArgumentCaptor<Object[]> donorIds = ArgumentCaptor.forClass(Object[].class);
+        verify(connection, atLeastOnce()).createArrayOf(eq("bigint"), donorIds.capture());
+        return donorIds.getAllValues().get(0);
+    }
+
+    private static Donation donation(Long id, Long donorId) {
+        return Donation.builder().id(id).donorId(donorId).donorName("Donor " + donorId).type("produce").quantity(5).build();
+    }
+
+    private static DonorScoreDTO standing(Long donorId, double score) {
+        return standing(donorId, score, 1);
+    }
+
+    private static DonorScoreDTO standing(Long donorId, double score, long revision) {
+        return new DonorScoreDTO(donorId, "Donor " + donorId, 1, 5, Map.of("produce", 5L), score, revision);
+    }
+}
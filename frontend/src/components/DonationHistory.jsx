@@ -6,34 +6,47 @@ import { useNavigate } from 'react-router-dom';
 
 export default function DonationHistory() {
   const [donationHistory, setDonationHistory] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const navigate = useNavigate();
 
-  useEffect(() => {
-    async function fetchDonationHistory() {
-      try {
-        const donorid = localStorage.getItem('donor_id');
-        if (!donorid) throw new Error('User ID not found in localStorage');
-
-        const response = await authFetch('http://127.0.0.1:8000/donation/v1/fetchDonationHistory', {
-          method: 'GET',
-          headers: {
-            'Content-Type': 'application/json',
+  // Fetches one page of history; without a cursor it starts from the newest donation
+  async function fetchDonationHistory(cursor) {
+    try {
+      const donorid = localStorage.getItem('donor_id');
+      if (!donorid) throw new Error('User ID not found in localStorage');
+
+      const headers = {
+        'Content-Type': 'application/json',
         'Authorization': `Bearer ${localStorage.getItem('access_token')}`,
-            'donor_id': donorid
-          }
-        }, navigate);
-
-        if (!response.ok) throw new Error('Failed to fetch');
-        const data = await response.json();
-        setDonationHistory(data);
-      } catch (error) {
-        console.error('Error fetching donation history:', error);
-      } finally {
-        setLoading(false);
-      }
+        'donor_id': donorid
+      };
+      if (cursor) headers['cursor'] = cursor;
+
+      const response = await authFetch('http://127.0.0.1:8000/donation/v1/fetchDonationHistory', {
+        method: 'GET',
+        headers
+      }, navigate);
+
+      if (!response.ok) throw new Error('Failed to fetch');
+      const data = await response.json();
+      setDonationHistory(prev => (cursor ? [...prev, ...data.donations] : data.donations));
+      setNextCursor(data.next_cursor);
+    } catch (error) {
+      console.error('Error fetching donation history:', error);
+    } finally {
+      setLoading(false);
+      setLoadingMore(false);
     }
+  }
 
+  function loadMore() {
+    setLoadingMore(true);
+    fetchDonationHistory(nextCursor);
+  }
+
+  useEffect(() => {
     fetchDonationHistory();
   }, []); 
 
@@ -244,6 +257,18 @@ export default function DonationHistory() {
                 </div>
               ))}
             </div>
+
+            {nextCursor && (
+              <div className="mt-6 flex justify-center">
+                <button
+                  onClick={loadMore}
+                  disabled={loadingMore}
+                  className="flex items-center px-4 py-2 bg-gradient-to-r from-purple-600 to-blue-600 hover:from-purple-500 hover:to-blue-500 text-white text-sm font-semibold transition-all duration-300 hover:shadow-lg disabled:opacity-50 disabled:cursor-not-allowed"
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </button>
+              </div>
+            )}
           </>
         )}
       </div>
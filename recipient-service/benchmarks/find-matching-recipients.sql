@@ -0,0 +1,88 @@
+-- Seeded benchmark for RecipientRepositoryImpl.findMatchingRecipients.
+--
+-- Builds an isolated copy of the matching tables in the "bench" schema, seeds
+-- :recipients rows around a city centre and compares the old predicate
+-- (ST_Distance on a per-row geography cast) with the indexed ST_DWithin one.
+-- Run against a scratch database with PostGIS enabled, once per size:
+--
+--   psql -d recipient_db -v recipients=10000   -f benchmarks/find-matching-recipients.sql
+--   psql -d recipient_db -v recipients=100000  -f benchmarks/find-matching-recipients.sql
+--   psql -d recipient_db -v recipients=1000000 -f benchmarks/find-matching-recipients.sql
+
+\set ON_ERROR_STOP on
+\timing on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+SET search_path = bench, public;
+
+CREATE TABLE recipients (
+    id        bigserial PRIMARY KEY,
+    status    varchar(255),
+    location  geometry(Point, 4326),
+    location_geog geography(Point, 4326) GENERATED ALWAYS AS (location::geography) STORED
+);
+
+CREATE TABLE accepted_types (
+    id           bigserial PRIMARY KEY,
+    type         varchar(255),
+    min_quantity integer,
+    recipient_id bigint REFERENCES recipients (id)
+);
+
+CREATE TABLE storage_capabilities (
+    id           bigserial PRIMARY KEY,
+    storage_type varchar(255),
+    recipient_id bigint REFERENCES recipients (id)
+);
+
+SELECT setseed(0.42);
+
+-- Recipients spread over roughly 200 x 200 km around (12.97, 77.59)
+INSERT INTO recipients (status, location)
+SELECT CASE WHEN random() < 0.9 THEN 'active' ELSE 'inactive' END,
+       ST_SetSRID(ST_MakePoint(77.59 + (random() - 0.5) * 1.8, 12.97 + (random() - 0.5) * 1.8), 4326)
+FROM generate_series(1, :recipients);
+
+INSERT INTO accepted_types (type, min_quantity, recipient_id)
+SELECT (ARRAY['cooked', 'raw', 'packaged', 'beverages'])[1 + floor(random() * 4)::int],
+       1 + floor(random() * 20)::int,
+       r.id
+FROM recipients r, generate_series(1, 2);
+
+INSERT INTO storage_capabilities (storage_type, recipient_id)
+SELECT (ARRAY['frozen', 'refrigerated', 'dry'])[1 + floor(random() * 3)::int], r.id
+FROM recipients r;
+
+CREATE INDEX ON accepted_types (recipient_id);
+CREATE INDEX ON storage_capabilities (recipient_id);
+ANALYZE;
+
+\echo '=== Before: ST_Distance over r.location::geography, no supporting indexes'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM recipients r
+WHERE r.status = 'active'
+  AND EXISTS (SELECT 1 FROM accepted_types t
+              WHERE t.recipient_id = r.id AND t.type = 'cooked' AND t.min_quantity <= 10)
+  AND EXISTS (SELECT 1 FROM storage_capabilities s
+              WHERE s.recipient_id = r.id AND s.storage_type = 'refrigerated')
+  AND ST_Distance(r.location::geography,
+                  ST_GeomFromText('POINT(77.590000 12.970000)', 4326)::geography) <= 5000;
+
+CREATE INDEX idx_recipients_location_geog ON recipients USING GIST (location_geog);
+CREATE INDEX idx_accepted_types_type_recipient ON accepted_types (type, recipient_id) INCLUDE (min_quantity);
+CREATE INDEX idx_storage_capabilities_type_recipient ON storage_capabilities (storage_type, recipient_id);
+ANALYZE;
+
+\echo '=== After: ST_DWithin over location_geog with GiST and supporting indexes'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM recipients r
+WHERE r.status = 'active'
+  AND EXISTS (SELECT 1 FROM accepted_types t
+              WHERE t.recipient_id = r.id AND t.type = 'cooked' AND t.min_quantity <= 10)
+  AND EXISTS (SELECT 1 FROM storage_capabilities s
+              WHERE s.recipient_id = r.id AND s.storage_type = 'refrigerated')
+  AND ST_DWithin(r.location_geog,
+                 ST_SetSRID(ST_MakePoint(77.59, 12.97), 4326)::geography, 5000);
+
+DROP SCHEMA bench CASCADE;
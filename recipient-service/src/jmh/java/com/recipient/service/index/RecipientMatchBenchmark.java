@@ -0,0 +1,110 @@
+package com.recipient.service.index;
+
+import com.recipient.service.entities.AcceptedType;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.entities.StorageCapability;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the columnar scan of {@link RecipientSpatialIndex} with evaluating the same predicates
+ * row by row on hydrated {@link Recipient} entities, which is what the matching path did before.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipientMatchBenchmark {
+
+    private static final String[] TYPES = {"vegetables", "fruits", "dairy", "bakery", "meat", "prepared"};
+    private static final String[] STORAGE_TYPES = {"dry", "refrigerated", "frozen"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int recipients;
+
+    @Param({"5", "25"})
+    public double radiusInKm;
+
+    private final double latitude = 40.7128;
+    private final double longitude = -74.0060;
+    private final String type = "dairy";
+    private final int quantity = 40;
+    private final String storageType = "refrigerated";
+
+    private List<Recipient> entities;
+    private RecipientSpatialIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        entities = new ArrayList<>(recipients);
+        List<IndexedRecipient> indexed = new ArrayList<>(recipients);
+
+        for (long id = 1; id <= recipients; id++) {
+            // Spread recipients over roughly 200 km x 200 km around the query point
+            double lat = latitude + (random.nextDouble() - 0.5) * 1.8;
+            double lon = longitude + (random.nextDouble() - 0.5) * 2.4;
+
+            Recipient recipient = Recipient.builder()
+                    .id(id)
+                    .latitude(BigDecimal.valueOf(lat))
+                    .longitude(BigDecimal.valueOf(lon))
+                    .status(Recipient.RecipientStatus.active)
+                    .build();
+
+            Map<String, Integer> minQuantityByType = new HashMap<>();
+            for (String acceptedType : TYPES) {
+                if (random.nextInt(3) == 0) {
+                    int minQuantity = random.nextInt(80);
+                    minQuantityByType.put(acceptedType, minQuantity);
+                    recipient.getAcceptedTypes().add(AcceptedType.builder()
+                            .type(acceptedType).minQuantity(minQuantity).recipient(recipient).build());
+                }
+            }
+            Set<String> storageTypes = new HashSet<>();
+            for (String storage : STORAGE_TYPES) {
+                if (random.nextBoolean()) {
+                    storageTypes.add(storage);
+                    recipient.getStorageCapabilities().add(StorageCapability.builder()
+                            .storageType(storage).recipient(recipient).build());
+                }
+            }
+
+            entities.add(recipient);
+            indexed.add(new IndexedRecipient(id, lat, lon, minQuantityByType, storageTypes));
+        }
+
+        index = new RecipientSpatialIndex();
+        index.load(indexed);
+    }
+
+    @Benchmark
+    public List<Long> entityRowByRow() {
+        List<Long> result = new ArrayList<>();
+        for (Recipient recipient : entities) {
+            if (recipient.getStatus() != Recipient.RecipientStatus.active) continue;
+
+            boolean accepts = recipient.getAcceptedTypes().stream()
+                    .anyMatch(at -> at.getType().equals(type) && at.getMinQuantity() <= quantity);
+            boolean storage = recipient.getStorageCapabilities().stream()
+                    .anyMatch(sc -> sc.getStorageType().equals(storageType));
+            if (accepts && storage
+                    && RecipientSpatialIndex.distanceKm(latitude, longitude,
+                    recipient.getLatitude().doubleValue(), recipient.getLongitude().doubleValue()) <= radiusInKm) {
+                result.add(recipient.getId());
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Long> columnarIndex() {
+        return index.findCandidateIds(latitude, longitude, radiusInKm, type, quantity, storageType);
+    }
+}
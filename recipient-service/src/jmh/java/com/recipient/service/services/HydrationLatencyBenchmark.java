@@ -0,0 +1,128 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.OpenHour;
+import com.recipient.service.repositories.*;
+import com.recipient.service.utils.RecipientChildren;
+import com.recipient.service.utils.RecipientMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * p50/p99 latency of {@link RecipientHydrationService#loadChildren} in serial and concurrent mode.
+ * The repositories are stubs that wait a fixed round trip plus a per-row cost before returning rows,
+ * standing in for Postgres, so the numbers show the effect of overlapping the five queries rather
+ * than any particular database. Run with {@code ./gradlew jmh -Pjmh.includes=HydrationLatencyBenchmark}
+ * and read the p0.50 / p0.99 lines of the SampleTime output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HydrationLatencyBenchmark {
+
+    @Param({"serial", "concurrent"})
+    public String mode;
+
+    @Param({"50", "500"})
+    public int recipients;
+
+    @Param({"1000"})
+    public long roundTripMicros;
+
+    @Param({"2"})
+    public long perRowMicros;
+
+    private RecipientHydrationService hydrationService;
+    private List<Long> recipientIds;
+
+    @Setup
+    public void setUp() {
+        hydrationService = new RecipientHydrationService(
+                stub(ContactRepository.class, id -> new Object[]{id, "contact", "contact@example.org", "555-0100"}),
+                stub(AcceptedTypeRepository.class, id -> new Object[]{id, "dairy", "kg", 10}),
+                stub(CapabilityRepository.class, id -> new Object[]{id, "pickup"}),
+                stub(StorageCapabilityRepository.class, id -> new Object[]{id, "refrigerated"}),
+                stub(OpenHourRepository.class, id -> new Object[]{id, OpenHour.DayOfWeek.monday,
+                        Time.valueOf("09:00:00"), Time.valueOf("17:00:00")}),
+                new RecipientMapper(),
+                new NoOpTransactionManager());
+
+        set("mode", mode);
+        set("concurrentMinRecipients", 1);
+        set("maxConcurrentQueries", 64);
+        hydrationService.init();
+
+        recipientIds = new ArrayList<>(recipients);
+        for (long id = 1; id <= recipients; id++) {
+            recipientIds.add(id);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        hydrationService.destroy();
+    }
+
+    @Benchmark
+    public RecipientChildren loadChildren() {
+        return hydrationService.loadChildren(recipientIds);
+    }
+
+    private interface RowFactory {
+        Object[] row(Long recipientId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T stub(Class<T> repository, RowFactory rowFactory) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, (proxy, method, args) -> {
+            if (!method.getName().equals("findByRecipientIds")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            List<Long> ids = new ArrayList<>((Collection<Long>) args[0]);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros + perRowMicros * ids.size()));
+
+            List<Object[]> rows = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                rows.add(rowFactory.row(id));
+            }
+            return rows;
+        });
+    }
+
+    private void set(String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(RecipientHydrationService.class, fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, hydrationService, value);
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
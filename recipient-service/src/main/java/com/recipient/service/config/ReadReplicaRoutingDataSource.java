@@ -0,0 +1,199 @@
+package com.recipient.service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to the primary.
+ * Replicas are probed periodically; one that is unreachable or lags more than the allowed replay delay
+ * is skipped until it catches up, and reads fall back to the primary when no replica is usable.
+ * A replica starts out of rotation and the first probe runs in the background, so a dead replica
+ * delays neither startup nor the shared scheduler: probes use their own connection with short
+ * connect and query timeouts instead of waiting on the replica pool.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * lookup happens after the transaction's read-only flag is set.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    // Zero while fully replayed, so an idle primary does not look like lag; 0 for a non-replica database
+    private static final String LAG_SQL = """
+SELECT CASE
+         WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+         ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+       END
+""";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final int probeTimeoutSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+    private final DataSource primary;
+    private final MeterRegistry meterRegistry;
+    private final Counter primaryRoutes;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+                                        double maxLagSeconds, int probeTimeoutSeconds, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLagSeconds;
+        this.probeTimeoutSeconds = probeTimeoutSeconds;
+        this.meterRegistry = meterRegistry;
+
+        for (HikariDataSource pool : replicaPools) {
+            replicas.add(new Replica(pool, meterRegistry.counter("recipient.datasource.route", "pool", pool.getPoolName())));
+        }
+        this.primaryRoutes = meterRegistry.counter("recipient.datasource.route", "pool", PRIMARY);
+    }
+
+    /**
+     * Sets the routing targets and registers the replica gauges here rather than in the constructor,
+     * where calling the inherited setters would let this escape before it is initialized.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            String poolName = replica.pool.getPoolName();
+            targets.put(poolName, replica.pool);
+
+            Gauge.builder("recipient.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("pool", poolName)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("recipient.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", poolName)
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        super.afterPropertiesSet();
+        if (!replicas.isEmpty()) {
+            Thread.ofVirtual().name("replica-probe").start(this::checkReplicaLag);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !replicas.isEmpty()) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (replica.healthy) {
+                    replica.routes.increment();
+                    return replica.pool.getPoolName();
+                }
+            }
+        }
+        primaryRoutes.increment();
+        return PRIMARY;
+    }
+
+    @Scheduled(initialDelayString = "${recipient.datasource.replica.lag-check-interval-ms:5000}",
+            fixedDelayString = "${recipient.datasource.replica.lag-check-interval-ms:5000}")
+    public synchronized void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Statement statement = probeConnection(replica).createStatement()) {
+                statement.setQueryTimeout(probeTimeoutSeconds);
+                try (ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                    resultSet.next();
+                    replica.lagSeconds = resultSet.getDouble(1);
+                }
+                healthy = replica.lagSeconds <= maxLagSeconds;
+            } catch (SQLException e) {
+                log.debug("Replica {} lag check failed", replica.pool.getPoolName(), e);
+                closeProbeConnection(replica);
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Replica {} is serving reads again (lag {} s)", replica.pool.getPoolName(), replica.lagSeconds);
+                } else {
+                    log.warn("Replica {} taken out of rotation (lag {} s, max {} s)",
+                            replica.pool.getPoolName(), replica.lagSeconds, maxLagSeconds);
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    /**
+     * The probe's own connection to the replica, kept open between probes. Going through the pool would
+     * wait up to its connectionTimeout for a dead replica.
+     */
+    private Connection probeConnection(Replica replica) throws SQLException {
+        if (replica.probeConnection == null) {
+            Properties properties = new Properties();
+            properties.putAll(replica.pool.getDataSourceProperties());
+            if (replica.pool.getUsername() != null) {
+                properties.setProperty("user", replica.pool.getUsername());
+            }
+            if (replica.pool.getPassword() != null) {
+                properties.setProperty("password", replica.pool.getPassword());
+            }
+            // pgjdbc timeouts, in seconds; the socket timeout also bounds a query the server never answers
+            properties.setProperty("connectTimeout", String.valueOf(probeTimeoutSeconds));
+            properties.setProperty("loginTimeout", String.valueOf(probeTimeoutSeconds));
+            properties.setProperty("socketTimeout", String.valueOf(probeTimeoutSeconds * 2));
+            replica.probeConnection = DriverManager.getConnection(replica.pool.getJdbcUrl(), properties);
+        }
+        return replica.probeConnection;
+    }
+
+    private void closeProbeConnection(Replica replica) {
+        if (replica.probeConnection != null) {
+            try {
+                replica.probeConnection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the probe connection to replica {} failed", replica.pool.getPoolName(), e);
+            }
+            replica.probeConnection = null;
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        for (Replica replica : replicas) {
+            closeProbeConnection(replica);
+            replica.pool.close();
+        }
+    }
+
+    private static final class Replica {
+
+        final HikariDataSource pool;
+        final Counter routes;
+        // Out of rotation until a probe has seen it
+        volatile boolean healthy = false;
+        volatile double lagSeconds;
+        // Guarded by the routing data source's monitor
+        Connection probeConnection;
+
+        Replica(HikariDataSource pool, Counter routes) {
+            this.pool = pool;
+            this.routes = routes;
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.recipient.service.controllers;
 
+import com.recipient.service.models.BatchMatchResultDTO;
 import com.recipient.service.models.DonationDTO;
+import com.recipient.service.models.ImportReportDTO;
 import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.models.RecipientPageDTO;
+import com.recipient.service.services.BatchMatchService;
 import com.recipient.service.services.DonationService;
+import com.recipient.service.services.RecipientImportService;
 import com.recipient.service.services.RecipientService;
+import com.recipient.service.services.RecipientStreamService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +32,11 @@ public class RecipientController {
 
     private final RecipientService recipientService;
     private final DonationService donationService;
+    private final BatchMatchService batchMatchService;
+    private final RecipientImportService recipientImportService;
+    private final RecipientStreamService recipientStreamService;
+
+    private static final String NDJSON = "application/x-ndjson";
 
     @PostMapping("/addRecipient")
     public ResponseEntity<Map<String, Object>> addRecipient(@RequestBody RecipientDTO recipientDTO) {
@@ -34,6 +49,9 @@ public class RecipientController {
             Long recipientId = recipientService.saveRecipient(recipientDTO);
             Map<String, Object> response = Map.of("recipient-id", recipientId);
             return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = Map.of("message", "Invalid recipient data: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             log.error("Error while saving recipient: {}", e.getMessage(), e);
             Map<String, Object> error = Map.of("message", "Failed to save recipient data: " + e.getMessage());
@@ -42,12 +60,81 @@ public class RecipientController {
     }
 
 
+    @PostMapping("/importRecipients")
+    public ResponseEntity<?> importRecipients(InputStream ndjsonBody) {
+        try {
+            ImportReportDTO report = recipientImportService.importNdjson(ndjsonBody);
+            return ResponseEntity.ok(report);
+        } catch (IOException e) {
+            log.error("Error while reading recipient import: {}", e.getMessage(), e);
+            Map<String, Object> error = Map.of("message", "Failed to read import body: " + e.getMessage());
+            return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+
     @PostMapping("/findRecipients")
-    public ResponseEntity<List<RecipientDTO>> findMatchingRecipients( @RequestBody DonationDTO donationDTO,
-                                                                   @RequestHeader(defaultValue = "25") double radiusInKm)
+    public ResponseEntity<?> findMatchingRecipients( @RequestBody DonationDTO donationDTO,
+                                                     @RequestHeader(defaultValue = "25") double radiusInKm,
+                                                     @RequestHeader(defaultValue = "false") boolean includeNextOpenSlot,
+                                                     @RequestHeader(defaultValue = "false") boolean explain)
+    {
+        try {
+            if (explain) {
+                return ResponseEntity.ok(donationService.explainEligibleRecipients(donationDTO, radiusInKm, includeNextOpenSlot));
+            }
+            if (!includeNextOpenSlot) {
+                // Spliced from precomputed recipient cards, written to the response as is
+                byte[] json = donationService.findEligibleRecipientsJson(donationDTO, radiusInKm);
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+            }
+            List<RecipientDTO> listOfRecipients = donationService.findEligibleRecipients(donationDTO, radiusInKm, includeNextOpenSlot);
+            return ResponseEntity.ok(listOfRecipients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Streaming variant of /findRecipients, selected with {@code Accept: application/x-ndjson}:
+     * one recipient JSON object per line, written while the rows are read.
+     */
+    @PostMapping(value = "/findRecipients", produces = NDJSON)
+    public ResponseEntity<?> streamMatchingRecipients(@RequestBody DonationDTO donationDTO,
+                                                      @RequestHeader(defaultValue = "25") double radiusInKm)
     {
-        List<RecipientDTO> listOfRecipients = donationService.findEligibleRecipients(donationDTO, radiusInKm);
-        return ResponseEntity.ok(listOfRecipients);
+        try {
+            StreamingResponseBody body = recipientStreamService.streamEligibleRecipients(donationDTO, radiusInKm);
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/findNearestRecipients")
+    public ResponseEntity<?> findNearestRecipients(@RequestBody DonationDTO donationDTO,
+                                                   @RequestHeader(defaultValue = "25") double radiusInKm,
+                                                   @RequestHeader(defaultValue = "20") int limit,
+                                                   @RequestHeader(required = false) String cursor)
+    {
+        try {
+            RecipientPageDTO page = donationService.findNearestRecipients(donationDTO, radiusInKm, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/findRecipientsBatch")
+    public ResponseEntity<?> findMatchingRecipientsBatch(@RequestBody List<DonationDTO> donations,
+                                                         @RequestHeader(defaultValue = "25") double radiusInKm)
+    {
+        try {
+            List<BatchMatchResultDTO> results = batchMatchService.findEligibleRecipientsBatch(donations, radiusInKm);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/deleteRecipient")
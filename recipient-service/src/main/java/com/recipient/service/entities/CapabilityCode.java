@@ -0,0 +1,40 @@
+package com.recipient.service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Shared dictionary mapping capability strings to small integer codes. A recipient's
+ * capabilities of one kind are stored as a bitmask of these codes on {@link Recipient}.
+ */
+@Entity
+@Table(name = "capability_codes",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_capability_codes_kind_value", columnNames = {"kind", "value"}),
+                @UniqueConstraint(name = "uk_capability_codes_kind_code", columnNames = {"kind", "code"})
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CapabilityCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private String value;
+
+    @Column(nullable = false)
+    private Integer code;
+
+    public enum Kind {
+        STORAGE, SPECIAL_CAPABILITY
+    }
+}
@@ -0,0 +1,42 @@
+package com.recipient.service.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Normalized form of a recipient's {@link OpenHour} rows: merged, inclusive
+ * minute-of-week ranges (Monday 00:00 = 0) in the recipient's local time.
+ * Used by the availability predicate in findMatchingRecipients.
+ */
+@Entity
+@Table(name = "open_hour_intervals",
+        indexes = @Index(name = "idx_open_hour_intervals_recipient", columnList = "recipient_id, start_minute, end_minute"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OpenHourInterval {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "start_minute", nullable = false)
+    private Integer startMinute;
+
+    @Column(name = "end_minute", nullable = false)
+    private Integer endMinute;
+
+    @ManyToOne
+    @JoinColumn(name = "recipient_id")
+    private Recipient recipient;
+
+    @Override
+    public String toString() {
+        return "OpenHourInterval{" +
+                "startMinute=" + startMinute +
+                ", endMinute=" + endMinute +
+                '}';
+    }
+}
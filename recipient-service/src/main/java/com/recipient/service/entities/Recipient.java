@@ -43,6 +43,13 @@ public class Recipient {
 
     private String timezone;
 
+    // Bitmasks of CapabilityCode codes, kept in sync with the storage_capabilities and capabilities rows
+    @Column(name = "storage_mask")
+    private Long storageMask;
+
+    @Column(name = "special_capability_mask")
+    private Long specialCapabilityMask;
+
     @Builder.Default
     @OneToMany(mappedBy = "recipient", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Contact> contacts = new ArrayList<>();
@@ -63,8 +70,16 @@ public class Recipient {
     @OneToMany(mappedBy = "recipient", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OpenHour> openHours = new ArrayList<>();
 
+    @Builder.Default
+    @OneToMany(mappedBy = "recipient", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OpenHourInterval> openHourIntervals = new ArrayList<>();
+
     private LocalDateTime createdAt;
 
+    // Bumped on every update; published with recipient change events
+    @Version
+    private Long version;
+
 
     private String summarizeList(List<?> list) {
         if (list == null || list.isEmpty()) return "[]";
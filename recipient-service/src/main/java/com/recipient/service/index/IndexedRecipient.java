@@ -0,0 +1,30 @@
+package com.recipient.service.index;
+
+import lombok.Value;
+
+import java.util.Map;
+import java.util.Set;
+
+@Value
+public class IndexedRecipient {
+
+    Long id;
+
+    double latitude;
+
+    double longitude;
+
+    // Smallest min_quantity per accepted type, mirrors the EXISTS check in findMatchingRecipients
+    Map<String, Integer> minQuantityByType;
+
+    Set<String> storageTypes;
+
+    public boolean accepts(String type, int quantity) {
+        Integer minQuantity = minQuantityByType.get(type);
+        return minQuantity != null && minQuantity <= quantity;
+    }
+
+    public boolean supportsStorage(String storageType) {
+        return storageTypes.contains(storageType);
+    }
+}
@@ -0,0 +1,188 @@
+package com.recipient.service.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU + TTL cache of candidate recipient ids for quantized match requests.
+ * <p>
+ * The donor location is snapped to a geohash cell and the quantity rounded up to a power of two.
+ * Cached ids are a superset (radius widened by the cell's half diagonal, quantity at the bucket's
+ * upper bound); callers re-apply the exact distance and quantity checks on the loaded recipients.
+ * Availability is not part of the key because it is checked per request from compiled schedules.
+ */
+@Component
+@Slf4j
+public class MatchCandidateCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final int geohashPrecision;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    // Bumped on every invalidation so loads that raced with a write are not stored
+    private long generation;
+
+    public MatchCandidateCache(MeterRegistry meterRegistry,
+                               @Value("${recipient.match-cache.enabled:true}") boolean enabled,
+                               @Value("${recipient.match-cache.max-entries:10000}") int maxEntries,
+                               @Value("${recipient.match-cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${recipient.match-cache.geohash-precision:6}") int geohashPrecision) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.geohashPrecision = geohashPrecision;
+        this.meterRegistry = meterRegistry;
+
+        this.hits = meterRegistry.counter("recipient.match.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("recipient.match.cache.requests", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("recipient.match.cache.evictions", "cause", "size");
+        this.expiredEvictions = meterRegistry.counter("recipient.match.cache.evictions", "cause", "expired");
+        this.invalidations = meterRegistry.counter("recipient.match.cache.evictions", "cause", "invalidated");
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > MatchCandidateCache.this.maxEntries) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Registered once constructed, so the gauge never sees a partially initialized cache
+    @PostConstruct
+    void registerGauges() {
+        meterRegistry.gauge("recipient.match.cache.size", this, MatchCandidateCache::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Key keyFor(double latitude, double longitude, double radiusInKm, String type, int quantity, String storageType) {
+        return new Key(Geohash.encode(latitude, longitude, geohashPrecision), type, storageType, quantityBucket(quantity), radiusInKm);
+    }
+
+    /**
+     * Center of the key's cell and the widened radius that covers every donor location inside it.
+     *
+     * @return {latitude, longitude, radiusInKm}
+     */
+    public double[] queryCircle(Key key) {
+        double[] bounds = Geohash.bounds(key.getCell());
+        double centerLat = (bounds[0] + bounds[1]) / 2;
+        double centerLon = (bounds[2] + bounds[3]) / 2;
+        double halfDiagonal = RecipientSpatialIndex.distanceKm(centerLat, centerLon, bounds[1], bounds[3]);
+        return new double[]{centerLat, centerLon, key.getRadiusInKm() + halfDiagonal};
+    }
+
+    public List<Long> get(Key key, Function<Key, List<Long>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    hits.increment();
+                    return entry.recipientIds;
+                }
+                entries.remove(key);
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        List<Long> recipientIds = List.copyOf(loader.apply(key));
+
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                entries.put(key, new Entry(recipientIds, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return recipientIds;
+    }
+
+    /**
+     * Drops entries whose query circle could contain a recipient at the given location.
+     */
+    public synchronized void invalidateNear(double latitude, double longitude) {
+        generation++;
+        Iterator<Key> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            double[] circle = queryCircle(iterator.next());
+            if (RecipientSpatialIndex.distanceKm(circle[0], circle[1], latitude, longitude) <= circle[2]) {
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops entries that list the recipient as a candidate.
+     */
+    public synchronized void invalidateRecipient(Long recipientId) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().recipientIds.contains(recipientId)) {
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.increment(entries.size());
+        entries.clear();
+    }
+
+    static int quantityBucket(int quantity) {
+        if (quantity <= 1) return 1;
+        if (quantity > (1 << 30)) return Integer.MAX_VALUE;
+        return Integer.highestOneBit(quantity - 1) << 1;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    public static class Key {
+        private final String cell;
+        private final String type;
+        private final String storageType;
+        private final int quantityBucket;
+        private final double radiusInKm;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final List<Long> recipientIds;
+        private final long expiresAt;
+    }
+}
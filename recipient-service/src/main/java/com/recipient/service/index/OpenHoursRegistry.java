@@ -0,0 +1,37 @@
+package com.recipient.service.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiled {@link WeeklySchedule} per recipient id.
+ */
+@Component
+public class OpenHoursRegistry {
+
+    private final Map<Long, WeeklySchedule> schedules = new ConcurrentHashMap<>();
+
+    public WeeklySchedule get(Long recipientId, Function<Long, WeeklySchedule> compiler) {
+        return schedules.computeIfAbsent(recipientId, compiler);
+    }
+
+    public Optional<WeeklySchedule> find(Long recipientId) {
+        return Optional.ofNullable(schedules.get(recipientId));
+    }
+
+    public boolean contains(Long recipientId) {
+        return schedules.containsKey(recipientId);
+    }
+
+    public void put(Long recipientId, WeeklySchedule schedule) {
+        schedules.put(recipientId, schedule);
+    }
+
+    public void remove(Long recipientId) {
+        schedules.remove(recipientId);
+    }
+}
@@ -0,0 +1,135 @@
+package com.recipient.service.index;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable columnar snapshot of the active recipients held by {@link RecipientSpatialIndex}.
+ * <p>
+ * Rows are sorted by grid cell so a cell is a contiguous row range. Each recipient is stored in
+ * parallel primitive arrays: coordinates in radians with a precomputed cosine of the latitude, and
+ * a storage-type bitmask. Accepted types sit in CSR form (a row's entries are
+ * {@code typeStart[row]..typeStart[row + 1]}) holding dictionary codes and min quantities.
+ * Matching is then a tight loop over primitives without touching any object per row.
+ */
+final class RecipientColumns {
+
+    static final RecipientColumns EMPTY = build(List.of(), e -> 0L);
+
+    final int size;
+    final long[] ids;
+    final long[] cellKeys;
+    final double[] latRad;
+    final double[] lonRad;
+    final double[] cosLat;
+
+    final int[] typeStart;
+    final int[] typeCodes;
+    final int[] typeMinQuantity;
+
+    final int storageWords;
+    final long[] storageMasks;
+
+    final Map<String, Integer> typeDictionary;
+    final Map<String, Integer> storageDictionary;
+
+    private RecipientColumns(int size, long[] ids, long[] cellKeys, double[] latRad, double[] lonRad, double[] cosLat,
+                             int[] typeStart, int[] typeCodes, int[] typeMinQuantity,
+                             int storageWords, long[] storageMasks,
+                             Map<String, Integer> typeDictionary, Map<String, Integer> storageDictionary) {
+        this.size = size;
+        this.ids = ids;
+        this.cellKeys = cellKeys;
+        this.latRad = latRad;
+        this.lonRad = lonRad;
+        this.cosLat = cosLat;
+        this.typeStart = typeStart;
+        this.typeCodes = typeCodes;
+        this.typeMinQuantity = typeMinQuantity;
+        this.storageWords = storageWords;
+        this.storageMasks = storageMasks;
+        this.typeDictionary = typeDictionary;
+        this.storageDictionary = storageDictionary;
+    }
+
+    static RecipientColumns build(Collection<IndexedRecipient> recipients,
+                                  ToLongFunction<IndexedRecipient> cellKeyOf) {
+        List<IndexedRecipient> rows = new ArrayList<>(recipients);
+        rows.sort(Comparator.comparingLong(cellKeyOf));
+
+        Map<String, Integer> typeDictionary = new HashMap<>();
+        Map<String, Integer> storageDictionary = new HashMap<>();
+        int typeEntries = 0;
+        for (IndexedRecipient row : rows) {
+            for (Map.Entry<String, Integer> type : row.getMinQuantityByType().entrySet()) {
+                if (type.getKey() == null || type.getValue() == null) continue;
+                typeDictionary.putIfAbsent(type.getKey(), typeDictionary.size());
+                typeEntries++;
+            }
+            for (String storageType : row.getStorageTypes()) {
+                if (storageType == null) continue;
+                storageDictionary.putIfAbsent(storageType, storageDictionary.size());
+            }
+        }
+
+        int size = rows.size();
+        int storageWords = Math.max(1, (storageDictionary.size() + 63) >>> 6);
+
+        long[] ids = new long[size];
+        long[] cellKeys = new long[size];
+        double[] latRad = new double[size];
+        double[] lonRad = new double[size];
+        double[] cosLat = new double[size];
+        int[] typeStart = new int[size + 1];
+        int[] typeCodes = new int[typeEntries];
+        int[] typeMinQuantity = new int[typeEntries];
+        long[] storageMasks = new long[size * storageWords];
+
+        int t = 0;
+        for (int i = 0; i < size; i++) {
+            IndexedRecipient row = rows.get(i);
+            ids[i] = row.getId();
+            cellKeys[i] = cellKeyOf.applyAsLong(row);
+            latRad[i] = Math.toRadians(row.getLatitude());
+            lonRad[i] = Math.toRadians(row.getLongitude());
+            cosLat[i] = Math.cos(latRad[i]);
+
+            typeStart[i] = t;
+            for (Map.Entry<String, Integer> type : row.getMinQuantityByType().entrySet()) {
+                // Null keys can never match and would break the immutable dictionaries
+                if (type.getKey() == null || type.getValue() == null) continue;
+                typeCodes[t] = typeDictionary.get(type.getKey());
+                typeMinQuantity[t] = type.getValue();
+                t++;
+            }
+
+            for (String storageType : row.getStorageTypes()) {
+                if (storageType == null) continue;
+                int code = storageDictionary.get(storageType);
+                storageMasks[i * storageWords + (code >>> 6)] |= 1L << code;
+            }
+        }
+        typeStart[size] = t;
+
+        return new RecipientColumns(size, ids, cellKeys, latRad, lonRad, cosLat,
+                typeStart, typeCodes, typeMinQuantity, storageWords, storageMasks,
+                Map.copyOf(typeDictionary), Map.copyOf(storageDictionary));
+    }
+
+    /**
+     * First row whose cell key is {@code >= cellKey}.
+     */
+    int lowerBound(long cellKey) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellKeys[mid] < cellKey) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
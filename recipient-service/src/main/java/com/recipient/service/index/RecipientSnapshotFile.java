@@ -0,0 +1,254 @@
+package com.recipient.service.index;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of the matching data, written and read through a memory-mapped file.
+ * <p>
+ * Layout: a header (magic, version, {@code createdAt} watermark in epoch millis, row count, CRC32C of
+ * everything after the header),
+ * string dictionaries for accepted types, storage types and timezones, then one row per recipient:
+ * id, latitude, longitude, {@code (type code, min quantity)} pairs, storage codes and the compiled
+ * schedule as a timezone code with {@code [start, endExclusive)} minute-of-week runs.
+ * A timezone code of -1 means no schedule was compiled yet; -2 means closed.
+ */
+public final class RecipientSnapshotFile {
+
+    private static final int MAGIC = 0x52435053; // "RCPS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4;
+    private static final int CHECKSUM_OFFSET = HEADER_SIZE - 4;
+    // id, latitude, longitude and the four counts/codes of an empty row
+    private static final int MIN_ROW_SIZE = 8 + 8 + 8 + 2 + 2 + 2 + 2;
+
+    private static final int NO_SCHEDULE = -1;
+    private static final int CLOSED = -2;
+
+    private RecipientSnapshotFile() {
+    }
+
+    public static void write(Path path, Instant createdAt, Collection<IndexedRecipient> recipients,
+                             Function<Long, Optional<WeeklySchedule>> schedules) throws IOException {
+        Dictionary types = new Dictionary();
+        Dictionary storageTypes = new Dictionary();
+        Dictionary timezones = new Dictionary();
+
+        List<WeeklySchedule> rowSchedules = new ArrayList<>(recipients.size());
+        List<int[]> rowRuns = new ArrayList<>(recipients.size());
+
+        long size = HEADER_SIZE;
+        for (IndexedRecipient recipient : recipients) {
+            recipient.getMinQuantityByType().keySet().forEach(types::code);
+            recipient.getStorageTypes().forEach(storageTypes::code);
+
+            WeeklySchedule schedule = schedules.apply(recipient.getId()).orElse(null);
+            int[] runs = schedule != null ? schedule.openRuns() : new int[0];
+            if (schedule != null && runs.length > 0) {
+                timezones.code(schedule.timezone());
+            }
+            rowSchedules.add(schedule);
+            rowRuns.add(runs);
+
+            size += 8 + 8 + 8
+                    + 2 + recipient.getMinQuantityByType().size() * (2 + 4)
+                    + 2 + recipient.getStorageTypes().size() * 2
+                    + 2 + 2 + runs.length * 2;
+        }
+        size += types.byteSize() + storageTypes.byteSize() + timezones.byteSize();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(createdAt.toEpochMilli()).putInt(recipients.size()).putInt(0);
+            types.writeTo(buffer);
+            storageTypes.writeTo(buffer);
+            timezones.writeTo(buffer);
+
+            int row = 0;
+            for (IndexedRecipient recipient : recipients) {
+                buffer.putLong(recipient.getId())
+                        .putDouble(recipient.getLatitude())
+                        .putDouble(recipient.getLongitude());
+
+                buffer.putShort((short) recipient.getMinQuantityByType().size());
+                for (Map.Entry<String, Integer> type : recipient.getMinQuantityByType().entrySet()) {
+                    buffer.putShort((short) types.code(type.getKey())).putInt(type.getValue());
+                }
+
+                buffer.putShort((short) recipient.getStorageTypes().size());
+                for (String storageType : recipient.getStorageTypes()) {
+                    buffer.putShort((short) storageTypes.code(storageType));
+                }
+
+                WeeklySchedule schedule = rowSchedules.get(row);
+                int[] runs = rowRuns.get(row);
+                int zoneCode = schedule == null ? NO_SCHEDULE
+                        : runs.length == 0 ? CLOSED : timezones.code(schedule.timezone());
+                buffer.putShort((short) zoneCode).putShort((short) (runs.length / 2));
+                for (int run : runs) {
+                    buffer.putShort((short) run);
+                }
+                row++;
+            }
+            buffer.putInt(CHECKSUM_OFFSET, checksum(buffer));
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @throws IOException when the file is not a complete, intact snapshot of this version
+     */
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a recipient snapshot: " + path);
+            int version = buffer.getInt();
+            if (version != VERSION) throw new IOException("Unsupported recipient snapshot version " + version);
+
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            int count = buffer.getInt();
+            if (buffer.getInt() != checksum(buffer)) throw new IOException("Corrupt recipient snapshot: " + path);
+            checkCount(buffer, count, MIN_ROW_SIZE);
+
+            String[] types = Dictionary.readFrom(buffer);
+            String[] storageTypes = Dictionary.readFrom(buffer);
+            String[] timezones = Dictionary.readFrom(buffer);
+
+            List<IndexedRecipient> recipients = new ArrayList<>(count);
+            Map<Long, WeeklySchedule> schedules = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                long id = buffer.getLong();
+                double latitude = buffer.getDouble();
+                double longitude = buffer.getDouble();
+
+                int typeCount = buffer.getShort();
+                checkCount(buffer, typeCount, 2 + 4);
+                Map<String, Integer> minQuantityByType = new HashMap<>(typeCount * 2);
+                for (int t = 0; t < typeCount; t++) {
+                    minQuantityByType.put(types[buffer.getShort()], buffer.getInt());
+                }
+
+                int storageCount = buffer.getShort();
+                checkCount(buffer, storageCount, 2);
+                Set<String> storage = new HashSet<>(storageCount * 2);
+                for (int s = 0; s < storageCount; s++) {
+                    storage.add(storageTypes[buffer.getShort()]);
+                }
+
+                int zoneCode = buffer.getShort();
+                int runCount = buffer.getShort();
+                checkCount(buffer, runCount, 2 + 2);
+                if (zoneCode >= 0) {
+                    WeeklySchedule.Builder builder = WeeklySchedule.builder(timezones[zoneCode]);
+                    for (int r = 0; r < runCount; r++) {
+                        builder.openMinutes(buffer.getShort(), buffer.getShort());
+                    }
+                    schedules.put(id, builder.build());
+                } else if (zoneCode == CLOSED) {
+                    schedules.put(id, WeeklySchedule.closed());
+                } else if (zoneCode != NO_SCHEDULE) {
+                    throw new IOException("Invalid timezone code " + zoneCode + " in recipient snapshot: " + path);
+                }
+
+                recipients.add(new IndexedRecipient(id, latitude, longitude,
+                        Map.copyOf(minQuantityByType), Set.copyOf(storage)));
+            }
+            return new Contents(createdAt, recipients, schedules);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated recipient snapshot: " + path, e);
+        } catch (RuntimeException e) {
+            // Bad timezone, run or value that passed the checksum; never let it fail the caller's startup
+            throw new IOException("Invalid recipient snapshot: " + path, e);
+        }
+    }
+
+    /**
+     * CRC32C of everything after the header.
+     */
+    private static int checksum(MappedByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Rejects a count that is negative or needs more bytes than are left, before anything is allocated for it.
+     */
+    private static void checkCount(ByteBuffer buffer, int count, int minBytesEach) throws IOException {
+        if (count < 0 || (long) count * minBytesEach > buffer.remaining()) {
+            throw new IOException("Invalid count " + count + " at offset " + buffer.position() + " of recipient snapshot");
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Contents {
+
+        private final Instant createdAt;
+        private final List<IndexedRecipient> recipients;
+        private final Map<Long, WeeklySchedule> schedules;
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new LinkedHashMap<>();
+
+        int code(String value) {
+            return codes.computeIfAbsent(value, v -> codes.size());
+        }
+
+        long byteSize() {
+            long size = 4;
+            for (String value : codes.keySet()) {
+                size += 4 + value.getBytes(StandardCharsets.UTF_8).length;
+            }
+            return size;
+        }
+
+        void writeTo(MappedByteBuffer buffer) {
+            buffer.putInt(codes.size());
+            for (String value : codes.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+
+        static String[] readFrom(MappedByteBuffer buffer) throws IOException {
+            int count = buffer.getInt();
+            checkCount(buffer, count, 4);
+            String[] values = new String[count];
+            for (int i = 0; i < values.length; i++) {
+                int length = buffer.getInt();
+                checkCount(buffer, length, 1);
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return values;
+        }
+    }
+}
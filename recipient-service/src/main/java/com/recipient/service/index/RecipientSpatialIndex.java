@@ -0,0 +1,279 @@
+package com.recipient.service.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grid index of active recipients.
+ * Points are bucketed into fixed lat/lon cells; a radius query visits only the
+ * cells overlapping the bounding box of the circle and then applies an exact
+ * haversine check together with the type, quantity and storage predicates.
+ * <p>
+ * Matching runs against an immutable {@link RecipientColumns} snapshot. Recipients written since
+ * the snapshot was taken are tracked as dirty: their snapshot rows are skipped and their current
+ * entry is checked directly. Once enough writes pile up the snapshot is rebuilt in the background.
+ */
+@Component
+@Slf4j
+public class RecipientSpatialIndex {
+
+    private static final double CELL_SIZE_DEGREES = 0.1;
+    private static final int LON_CELLS = (int) Math.round(360 / CELL_SIZE_DEGREES);
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int REBUILD_THRESHOLD = 1024;
+
+    private final Map<Long, IndexedRecipient> entries = new ConcurrentHashMap<>();
+
+    // Recipients written while the initial load was running; their loaded rows are stale
+    private final Set<Long> touchedBeforeReady = new HashSet<>();
+
+    private volatile Snapshot snapshot = new Snapshot(RecipientColumns.EMPTY);
+
+    // Dirty set of the snapshot currently being rebuilt, null when no rebuild is running
+    private Set<Long> pendingDirty;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized void load(Collection<IndexedRecipient> recipients) {
+        for (IndexedRecipient recipient : recipients) {
+            if (!touchedBeforeReady.contains(recipient.getId())) {
+                entries.put(recipient.getId(), recipient);
+            }
+        }
+        touchedBeforeReady.clear();
+        snapshot = new Snapshot(RecipientColumns.build(entries.values(), RecipientSpatialIndex::cellKeyOf));
+        ready = true;
+        log.info("Recipient index ready with {} active recipients", entries.size());
+    }
+
+    public synchronized void upsert(IndexedRecipient recipient) {
+        if (!ready) {
+            touchedBeforeReady.add(recipient.getId());
+        }
+        entries.put(recipient.getId(), recipient);
+        markDirty(recipient.getId());
+    }
+
+    public synchronized void remove(Long recipientId) {
+        if (!ready) {
+            touchedBeforeReady.add(recipientId);
+        }
+        entries.remove(recipientId);
+        markDirty(recipientId);
+    }
+
+    public Optional<IndexedRecipient> get(Long recipientId) {
+        return Optional.ofNullable(entries.get(recipientId));
+    }
+
+    public List<IndexedRecipient> entries() {
+        return List.copyOf(entries.values());
+    }
+
+    public List<Long> findCandidateIds(double latitude, double longitude, double radiusInKm,
+                                       String type, int quantity, String storageType) {
+        // A missing type or storage type matches nothing on the SQL path (NULL comparisons); the
+        // dictionaries and entry maps are immutable and reject null lookups, so answer that here
+        if (type == null || storageType == null) {
+            return new ArrayList<>();
+        }
+
+        List<Long> result = new ArrayList<>();
+        Snapshot current = snapshot;
+
+        scanColumns(current, latitude, longitude, radiusInKm, type, quantity, storageType, result);
+
+        for (Long id : current.dirty) {
+            IndexedRecipient recipient = entries.get(id);
+            if (recipient != null
+                    && recipient.accepts(type, quantity)
+                    && recipient.supportsStorage(storageType)
+                    && distanceKm(latitude, longitude, recipient.getLatitude(), recipient.getLongitude()) <= radiusInKm) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void scanColumns(Snapshot current, double latitude, double longitude, double radiusInKm,
+                             String type, int quantity, String storageType, List<Long> result) {
+        RecipientColumns columns = current.columns;
+        Integer typeCode = columns.typeDictionary.get(type);
+        Integer storageCode = columns.storageDictionary.get(storageType);
+        if (typeCode == null || storageCode == null) return;
+
+        int t = typeCode;
+        int storageWord = storageCode >>> 6;
+        long storageBit = 1L << storageCode;
+        boolean checkDirty = !current.dirty.isEmpty();
+
+        double latRad = Math.toRadians(latitude);
+        double lonRad = Math.toRadians(longitude);
+        double cosLatRad = Math.cos(latRad);
+        // Compare the haversine term directly so the loop needs no asin/sqrt per row
+        double maxHalfChord = Math.sin(Math.min(Math.PI, radiusInKm / EARTH_RADIUS_KM) / 2);
+        double maxA = maxHalfChord * maxHalfChord;
+
+        long[] cellKeys = columns.cellKeys;
+        double[] rowLat = columns.latRad;
+        double[] rowLon = columns.lonRad;
+        double[] rowCosLat = columns.cosLat;
+        int[] typeStart = columns.typeStart;
+        int[] typeCodes = columns.typeCodes;
+        int[] typeMinQuantity = columns.typeMinQuantity;
+        long[] storageMasks = columns.storageMasks;
+        int storageWords = columns.storageWords;
+
+        CellRange range = cellRange(latitude, longitude, radiusInKm);
+        for (int latCell = range.minLatCell; latCell <= range.maxLatCell; latCell++) {
+            for (int lonCell = range.minLonCell; lonCell <= range.maxLonCell; lonCell++) {
+                long key = cellKey(latCell, Math.floorMod(lonCell, LON_CELLS));
+
+                for (int row = columns.lowerBound(key); row < columns.size && cellKeys[row] == key; row++) {
+                    if ((storageMasks[row * storageWords + storageWord] & storageBit) == 0) continue;
+
+                    boolean accepts = false;
+                    for (int k = typeStart[row], end = typeStart[row + 1]; k < end; k++) {
+                        if (typeCodes[k] == t && typeMinQuantity[k] <= quantity) {
+                            accepts = true;
+                            break;
+                        }
+                    }
+                    if (!accepts) continue;
+
+                    double sinLat = Math.sin((rowLat[row] - latRad) / 2);
+                    double sinLon = Math.sin((rowLon[row] - lonRad) / 2);
+                    double a = sinLat * sinLat + cosLatRad * rowCosLat[row] * sinLon * sinLon;
+                    if (a > maxA) continue;
+
+                    long id = columns.ids[row];
+                    if (checkDirty && current.dirty.contains(id)) continue;
+                    result.add(id);
+                }
+            }
+        }
+    }
+
+    private void markDirty(Long recipientId) {
+        Snapshot current = snapshot;
+        current.dirty.add(recipientId);
+        if (pendingDirty != null) {
+            pendingDirty.add(recipientId);
+        } else if (ready && current.dirty.size() >= REBUILD_THRESHOLD) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Copies the entries under the lock and builds the new columns outside of it. Writes made while
+     * the build runs are recorded in both the current and the pending dirty set, so the new snapshot
+     * never hides them.
+     */
+    private void startRebuild() {
+        Set<Long> dirty = ConcurrentHashMap.newKeySet();
+        List<IndexedRecipient> rows = new ArrayList<>(entries.values());
+        pendingDirty = dirty;
+
+        CompletableFuture.supplyAsync(() -> RecipientColumns.build(rows, RecipientSpatialIndex::cellKeyOf))
+                .whenComplete((columns, ex) -> {
+                    synchronized (this) {
+                        if (ex == null) {
+                            snapshot = new Snapshot(columns, dirty);
+                            log.debug("Rebuilt recipient columns with {} rows", columns.size);
+                        } else {
+                            log.error("Failed to rebuild recipient columns", ex);
+                        }
+                        pendingDirty = null;
+                    }
+                });
+    }
+
+    private static CellRange cellRange(double latitude, double longitude, double radiusInKm) {
+        double latDelta = radiusInKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        double lonDelta = cosLat > 1e-9 ? radiusInKm / (KM_PER_DEGREE * cosLat) : 180;
+
+        int minLatCell = latCell(Math.max(-90, latitude - latDelta));
+        int maxLatCell = latCell(Math.min(90, latitude + latDelta));
+
+        int minLonCell;
+        int maxLonCell;
+        if (lonDelta >= 180) {
+            minLonCell = 0;
+            maxLonCell = LON_CELLS - 1;
+        } else {
+            minLonCell = (int) Math.floor((longitude - lonDelta + 180) / CELL_SIZE_DEGREES);
+            maxLonCell = (int) Math.floor((longitude + lonDelta + 180) / CELL_SIZE_DEGREES);
+            if (maxLonCell - minLonCell >= LON_CELLS) {
+                minLonCell = 0;
+                maxLonCell = LON_CELLS - 1;
+            }
+        }
+        return new CellRange(minLatCell, maxLatCell, minLonCell, maxLonCell);
+    }
+
+    private static long cellKeyOf(IndexedRecipient recipient) {
+        int lonCell = Math.floorMod((int) Math.floor((recipient.getLongitude() + 180) / CELL_SIZE_DEGREES), LON_CELLS);
+        return cellKey(latCell(recipient.getLatitude()), lonCell);
+    }
+
+    private static int latCell(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    private static final class Snapshot {
+
+        final RecipientColumns columns;
+        final Set<Long> dirty;
+
+        Snapshot(RecipientColumns columns) {
+            this(columns, ConcurrentHashMap.newKeySet());
+        }
+
+        Snapshot(RecipientColumns columns, Set<Long> dirty) {
+            this.columns = columns;
+            this.dirty = dirty;
+        }
+    }
+
+    private static final class CellRange {
+
+        final int minLatCell;
+        final int maxLatCell;
+        final int minLonCell;
+        final int maxLonCell;
+
+        CellRange(int minLatCell, int maxLatCell, int minLonCell, int maxLonCell) {
+            this.minLatCell = minLatCell;
+            this.maxLatCell = maxLatCell;
+            this.minLonCell = minLonCell;
+            this.maxLonCell = maxLonCell;
+        }
+    }
+}
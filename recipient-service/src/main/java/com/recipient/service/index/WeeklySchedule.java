@@ -0,0 +1,153 @@
+package com.recipient.service.index;
+
+import com.recipient.service.entities.OpenHour;
+
+import java.time.*;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A recipient's weekly opening hours compiled into a minute-of-week bitmap
+ * (Monday 00:00 = bit 0) in the recipient's local time.
+ * Lookups convert the instant with the zone's cached {@link ZoneRules}, so DST
+ * transitions are honoured without a per-call {@code ZoneId.of} or allocation.
+ * Open and close minutes are both inclusive, matching the previous
+ * {@code LocalTime} comparison at minute resolution.
+ */
+public final class WeeklySchedule {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    // 1970-01-01 was a Thursday, i.e. day 3 of a Monday-based week
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+    private static final WeeklySchedule CLOSED = new WeeklySchedule(ZoneOffset.UTC, new BitSet(MINUTES_PER_WEEK));
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final boolean fixedOffset;
+    private final int fixedOffsetSeconds;
+    private final BitSet openMinutes;
+
+    private WeeklySchedule(ZoneId zone, BitSet openMinutes) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.fixedOffset = rules.isFixedOffset();
+        this.fixedOffsetSeconds = fixedOffset ? rules.getOffset(Instant.EPOCH).getTotalSeconds() : 0;
+        this.openMinutes = openMinutes;
+    }
+
+    public static WeeklySchedule closed() {
+        return CLOSED;
+    }
+
+    public static Builder builder(String timezone) {
+        return new Builder(ZONES.computeIfAbsent(timezone, ZoneId::of));
+    }
+
+    public boolean isEmpty() {
+        return openMinutes.isEmpty();
+    }
+
+    public String timezone() {
+        return zone.getId();
+    }
+
+    /**
+     * Open minutes as consecutive {@code [start, endExclusive)} pairs, the compact form
+     * used by the recipient snapshot file.
+     */
+    public int[] openRuns() {
+        int[] runs = new int[openMinutes.cardinality() * 2];
+        int count = 0;
+        for (int start = openMinutes.nextSetBit(0); start >= 0; start = openMinutes.nextSetBit(start)) {
+            int end = openMinutes.nextClearBit(start);
+            runs[count++] = start;
+            runs[count++] = end;
+            start = end;
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    public boolean isOpenAt(Instant instant) {
+        return openMinutes.get(minuteOfWeek(localEpochSecond(instant)));
+    }
+
+    /**
+     * Returns {@code instant} itself when open, otherwise the start of the next
+     * open minute within the coming week.
+     */
+    public Optional<Instant> nextOpenAt(Instant instant) {
+        if (openMinutes.isEmpty()) return Optional.empty();
+        if (isOpenAt(instant)) return Optional.of(instant);
+
+        long localSecond = localEpochSecond(instant);
+        int minute = minuteOfWeek(localSecond);
+
+        int next = openMinutes.nextSetBit(minute + 1);
+        int minutesAhead = next >= 0 ? next - minute : MINUTES_PER_WEEK - minute + openMinutes.nextSetBit(0);
+
+        LocalDateTime localStart = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(localSecond, 60) * 60, 0, ZoneOffset.UTC).plusMinutes(minutesAhead);
+        return Optional.of(ZonedDateTime.ofLocal(localStart, zone, null).toInstant());
+    }
+
+    /**
+     * Earliest instant in {@code [from, to]} at which the recipient is open. The bitmap repeats
+     * weekly, so a single {@link #nextOpenAt} lookup answers windows of any length.
+     */
+    public Optional<Instant> earliestOpenIn(Instant from, Instant to) {
+        if (to.isBefore(from)) return Optional.empty();
+        return nextOpenAt(from).filter(slot -> !slot.isAfter(to));
+    }
+
+    private long localEpochSecond(Instant instant) {
+        int offset = fixedOffset ? fixedOffsetSeconds : rules.getOffset(instant).getTotalSeconds();
+        return instant.getEpochSecond() + offset;
+    }
+
+    private static int minuteOfWeek(long localEpochSecond) {
+        long epochMinute = Math.floorDiv(localEpochSecond, 60);
+        return Math.floorMod(epochMinute + (long) EPOCH_DAY_OF_WEEK * MINUTES_PER_DAY, MINUTES_PER_WEEK);
+    }
+
+    public static final class Builder {
+
+        private final ZoneId zone;
+        private final BitSet openMinutes = new BitSet(MINUTES_PER_WEEK);
+
+        private Builder(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        public Builder open(OpenHour.DayOfWeek day, LocalTime openTime, LocalTime closeTime) {
+            if (day == null || openTime == null || closeTime == null || closeTime.isBefore(openTime)) {
+                return this;
+            }
+            int dayStart = day.ordinal() * MINUTES_PER_DAY;
+            int from = dayStart + openTime.getHour() * 60 + openTime.getMinute();
+            int to = dayStart + closeTime.getHour() * 60 + closeTime.getMinute();
+            openMinutes.set(from, to + 1);
+            return this;
+        }
+
+        public Builder openMinutes(int fromMinuteOfWeek, int toMinuteOfWeekExclusive) {
+            if (fromMinuteOfWeek >= 0 && toMinuteOfWeekExclusive <= MINUTES_PER_WEEK
+                    && fromMinuteOfWeek < toMinuteOfWeekExclusive) {
+                openMinutes.set(fromMinuteOfWeek, toMinuteOfWeekExclusive);
+            }
+            return this;
+        }
+
+        public WeeklySchedule build() {
+            return new WeeklySchedule(zone, openMinutes);
+        }
+    }
+}
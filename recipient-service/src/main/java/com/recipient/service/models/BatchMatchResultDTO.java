@@ -0,0 +1,23 @@
+package com.recipient.service.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchMatchResultDTO {
+    // Position of the donation in the request list
+    private int index;
+    private List<RecipientDTO> recipients;
+    private String error;
+
+    public static BatchMatchResultDTO failed(int index, String error) {
+        return new BatchMatchResultDTO(index, null, error);
+    }
+}
@@ -47,6 +47,13 @@ public class DonationDTO {
         @JsonProperty("donation_pickup_time")
         private String donationPickupTime;
 
+        // Optional pickup window; when set it replaces donation_pickup_time for matching
+        @JsonProperty("pickup_window_start")
+        private String pickupWindowStart;
+
+        @JsonProperty("pickup_window_end")
+        private String pickupWindowEnd;
+
         @JsonProperty("packaging_type")
         private String packagingType;
 
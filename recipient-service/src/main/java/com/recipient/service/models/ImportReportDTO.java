@@ -0,0 +1,26 @@
+package com.recipient.service.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReportDTO {
+    private int imported;
+    private int failed;
+
+    // Capped, see RecipientImportService.MAX_REPORTED_ERRORS
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String name;
+        private String error;
+    }
+}
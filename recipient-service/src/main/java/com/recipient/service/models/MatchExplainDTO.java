@@ -0,0 +1,38 @@
+package com.recipient.service.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchExplainDTO {
+
+    private List<RecipientDTO> recipients;
+
+    @JsonProperty("stage_ms")
+    private Map<String, Double> stageMs;
+
+    // Recipients within the radius still eligible after each filter, in filter order
+    @JsonProperty("remaining_after_filter")
+    private Map<String, Integer> remainingAfterFilter;
+
+    private List<DroppedRecipient> dropped;
+
+    @JsonProperty("dropped_truncated")
+    private boolean droppedTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DroppedRecipient {
+        @JsonProperty("recipient_id")
+        private Long recipientId;
+        private String reason;
+    }
+}
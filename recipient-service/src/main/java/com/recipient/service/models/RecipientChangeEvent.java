@@ -0,0 +1,39 @@
+package com.recipient.service.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact recipient change published on {@code recipient-exchange}. Consumers keep the event
+ * with the highest {@code version} per recipient and ignore older or duplicate ones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RecipientChangeEvent {
+
+    @JsonProperty("recipient_id")
+    private Long recipientId;
+
+    private Long version;
+
+    @JsonProperty("change_type")
+    private ChangeType changeType;
+
+    private String status;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @JsonProperty("occurred_at")
+    private String occurredAt;
+
+    public enum ChangeType {
+        UPSERTED, DELETED
+    }
+}
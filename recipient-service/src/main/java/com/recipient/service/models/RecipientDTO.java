@@ -1,5 +1,6 @@
 package com.recipient.service.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
@@ -30,6 +31,22 @@ public class RecipientDTO {
 
         private Contact contact;
 
+        @JsonProperty("open_at_pickup")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Boolean openAtPickup;
+
+        @JsonProperty("next_open_slot")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String nextOpenSlot;
+
+        @JsonProperty("earliest_open_slot")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String earliestOpenSlot;
+
+        @JsonProperty("distance_km")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Double distanceKm;
+
     @Data
     public static class Location {
         private double latitude;
@@ -0,0 +1,19 @@
+package com.recipient.service.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipientPageDTO {
+    private List<RecipientDTO> recipients;
+
+    // Opaque cursor for the next page, null when there are no further recipients in range
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
@@ -0,0 +1,93 @@
+package com.recipient.service.producers;
+
+import com.recipient.service.models.RecipientChangeEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Publishes recipient changes once their transaction has committed. Events are queued and sent
+ * as JSON arrays of up to {@code recipient.events.max-batch-size}, so a burst of writes turns into
+ * a handful of messages instead of one per recipient.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientChangePublisher {
+
+    private static final String ROUTING_KEY = "recipient.changed";
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${recipient.events.enabled:true}")
+    private boolean eventsEnabled;
+
+    @Value("${recipient.events.exchange:recipient-exchange}")
+    private String exchange;
+
+    @Value("${recipient.events.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${recipient.events.max-pending:100000}")
+    private int maxPending;
+
+    // Bounded, so a full queue is detected by the insert itself rather than a separate size check
+    private BlockingDeque<RecipientChangeEvent> pending;
+
+    @PostConstruct
+    void init() {
+        pending = new LinkedBlockingDeque<>(maxPending);
+    }
+
+    // Runs immediately when no transaction is active, e.g. after the import's own chunk commit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipientChanged(RecipientChangeEvent event) {
+        if (!eventsEnabled) return;
+
+        if (!pending.offerLast(event)) {
+            log.warn("Recipient change queue full, dropping event for recipient {} version {}",
+                    event.getRecipientId(), event.getVersion());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recipient.events.flush-interval-ms:200}")
+    public void flush() {
+        List<RecipientChangeEvent> batch = new ArrayList<>(maxBatchSize);
+        while (pending.drainTo(batch, maxBatchSize) > 0) {
+            try {
+                rabbitTemplate.convertAndSend(exchange, ROUTING_KEY, batch);
+                log.debug("Published {} recipient change events", batch.size());
+            } catch (AmqpException e) {
+                // Keep the order and retry on the next tick; events queued meanwhile may have filled the queue
+                int dropped = 0;
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    if (!pending.offerFirst(batch.get(i))) {
+                        dropped++;
+                    }
+                }
+                log.warn("Failed to publish {} recipient change events, {} pending, {} dropped: {}",
+                        batch.size(), pending.size(), dropped, e.getMessage());
+                return;
+            }
+            batch = new ArrayList<>(maxBatchSize);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -2,5 +2,19 @@ package com.recipient.service.repositories;
 
 import com.recipient.service.entities.AcceptedType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AcceptedTypeRepository extends JpaRepository<AcceptedType, Long> {}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+
+public interface AcceptedTypeRepository extends JpaRepository<AcceptedType, Long> {
+
+    @Query("select t.recipient.id, t.type, t.minQuantity from AcceptedType t " +
+            "where t.recipient.status = com.recipient.service.entities.Recipient.RecipientStatus.active")
+    List<Object[]> findActiveRecipientTypes();
+
+    @Query("select t.recipient.id, t.type, t.unit, t.minQuantity from AcceptedType t " +
+            "where t.recipient.id in :recipientIds order by t.id")
+    List<Object[]> findByRecipientIds(@Param("recipientIds") Collection<Long> recipientIds);
+}
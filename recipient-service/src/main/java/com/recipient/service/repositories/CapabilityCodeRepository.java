@@ -0,0 +1,11 @@
+package com.recipient.service.repositories;
+
+import com.recipient.service.entities.CapabilityCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CapabilityCodeRepository extends JpaRepository<CapabilityCode, Long> {
+
+    Optional<CapabilityCode> findByKindAndValue(CapabilityCode.Kind kind, String value);
+}
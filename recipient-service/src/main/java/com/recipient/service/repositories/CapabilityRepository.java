@@ -2,5 +2,15 @@ package com.recipient.service.repositories;
 
 import com.recipient.service.entities.SpecialCapability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface CapabilityRepository extends JpaRepository<SpecialCapability, Long> {}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+
+public interface CapabilityRepository extends JpaRepository<SpecialCapability, Long> {
+
+    @Query("select c.recipient.id, c.specialCapability from SpecialCapability c " +
+            "where c.recipient.id in :recipientIds order by c.id")
+    List<Object[]> findByRecipientIds(@Param("recipientIds") Collection<Long> recipientIds);
+}
@@ -2,5 +2,15 @@ package com.recipient.service.repositories;
 
 import com.recipient.service.entities.Contact;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ContactRepository extends JpaRepository<Contact, Long> {}
+import java.util.Collection;
+import java.util.List;
+
+public interface ContactRepository extends JpaRepository<Contact, Long> {
+
+    @Query("select c.recipient.id, c.name, c.email, c.phone from Contact c " +
+            "where c.recipient.id in :recipientIds order by c.id")
+    List<Object[]> findByRecipientIds(@Param("recipientIds") Collection<Long> recipientIds);
+}
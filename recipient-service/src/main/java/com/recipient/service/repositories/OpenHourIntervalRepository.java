@@ -0,0 +1,6 @@
+package com.recipient.service.repositories;
+
+import com.recipient.service.entities.OpenHourInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OpenHourIntervalRepository extends JpaRepository<OpenHourInterval, Long> {}
@@ -2,5 +2,19 @@ package com.recipient.service.repositories;
 
 import com.recipient.service.entities.OpenHour;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface OpenHourRepository extends JpaRepository<OpenHour, Long> {}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+
+public interface OpenHourRepository extends JpaRepository<OpenHour, Long> {
+
+    @Query("select o.recipient.id, o.recipient.timezone, o.dayOfWeek, o.openTime, o.closeTime from OpenHour o " +
+            "where o.recipient.status = com.recipient.service.entities.Recipient.RecipientStatus.active")
+    List<Object[]> findActiveOpenHours();
+
+    @Query("select o.recipient.id, o.dayOfWeek, o.openTime, o.closeTime from OpenHour o " +
+            "where o.recipient.id in :recipientIds order by o.id")
+    List<Object[]> findByRecipientIds(@Param("recipientIds") Collection<Long> recipientIds);
+}
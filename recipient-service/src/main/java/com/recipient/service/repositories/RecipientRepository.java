@@ -2,6 +2,27 @@ package com.recipient.service.repositories;
 
 import com.recipient.service.entities.Recipient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface RecipientRepository extends JpaRepository<Recipient, String>, RecipientRepositoryCustom {
+
+    List<Recipient> findByIdIn(Collection<Long> ids);
+
+    @Query("select r.id, r.latitude, r.longitude from Recipient r " +
+            "where r.status = com.recipient.service.entities.Recipient.RecipientStatus.active")
+    List<Object[]> findActiveLocations();
+
+    @Query("select r.id from Recipient r " +
+            "where r.status = com.recipient.service.entities.Recipient.RecipientStatus.active")
+    List<Long> findActiveIds();
+
+    @Query("select r.id, r.latitude, r.longitude, r.timezone from Recipient r " +
+            "where r.status = com.recipient.service.entities.Recipient.RecipientStatus.active " +
+            "and r.createdAt >= :createdSince")
+    List<Object[]> findActiveLocationsCreatedSince(@Param("createdSince") LocalDateTime createdSince);
 }
@@ -3,8 +3,63 @@ package com.recipient.service.repositories;
 import com.recipient.service.entities.Recipient;
 import com.recipient.service.models.DonationDTO;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+/**
+ * Match queries. {@code storageMask} is the single-bit mask of the donation's storage type from
+ * {@link com.recipient.service.services.CapabilityDictionary#maskBitOf}, or 0 to match the storage type
+ * through the storage_capabilities table instead.
+ */
 public interface RecipientRepositoryCustom {
-    List<Recipient> findMatchingRecipients(DonationDTO donationDTO, double radiusInKm);
+    List<Recipient> findMatchingRecipients(DonationDTO donationDTO, double radiusInKm, long storageMask);
+
+    /**
+     * Same as {@link #findMatchingRecipients(DonationDTO, double, long)}, additionally keeping only recipients
+     * open at {@code openAt} when it is not null.
+     */
+    List<Recipient> findMatchingRecipients(DonationDTO donationDTO, double radiusInKm, long storageMask, Instant openAt);
+
+    /**
+     * Streams the same rows as {@link #findMatchingRecipients(DonationDTO, double, long, Instant)} through a
+     * forward-only cursor reading {@code fetchSize} rows per round trip. Must be consumed and closed
+     * inside a transaction.
+     */
+    Stream<Recipient> streamMatchingRecipients(DonationDTO donationDTO, double radiusInKm, long storageMask,
+                                               Instant openAt, int fetchSize);
+
+    /**
+     * Ids of active recipients within {@code radiusInKm} of the point that accept {@code type} at
+     * {@code quantity} and support {@code storageType}; no availability check.
+     */
+    List<Long> findMatchingRecipientIds(double latitude, double longitude, double radiusInKm,
+                                        String type, int quantity, String storageType, long storageMask);
+
+    /**
+     * Status of every recipient within {@code radiusInKm} of the point, ordered by id. Used by explain mode.
+     */
+    LinkedHashMap<Long, String> findStatusesWithinRadius(double latitude, double longitude, double radiusInKm);
+
+    /**
+     * K nearest matching recipients ordered by (distance, id) using the GiST KNN operator.
+     * Rows after the ({@code afterDistance}, {@code afterId}) cursor are returned when it is given.
+     *
+     * @return recipient id to distance in meters, in ascending distance order
+     */
+    LinkedHashMap<Long, Double> findNearestMatchingRecipientIds(DonationDTO donationDTO, double radiusInKm, long storageMask,
+                                                                Instant openAt, int limit, Double afterDistance, Long afterId);
+
+    /**
+     * Matches several donations in one statement (LATERAL join over the donation list),
+     * including pickup-time availability.
+     *
+     * @param storageMasks donation key to storage mask
+     * @return donation key to matching recipient ids
+     */
+    Map<Integer, List<Long>> findMatchingRecipientIdsBatch(Map<Integer, DonationDTO> donations,
+                                                           Map<Integer, Long> storageMasks,
+                                                           Map<Integer, Instant> openAt, double radiusInKm);
 }
@@ -4,30 +4,36 @@ import com.recipient.service.entities.Recipient;
 import com.recipient.service.models.DonationDTO;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Repository
 public class RecipientRepositoryImpl implements RecipientRepositoryCustom {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    // The columns mapped on Recipient only: card_json and location_geog are never read from match results
+    private static final String MATCH_SQL = """
+SELECT r.id, r.name, r.address, r.latitude, r.longitude, r.location, r.status, r.description, r.timezone,
+       r.storage_mask, r.special_capability_mask, r.created_at, r.version
+FROM recipients r
+""";
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public List<Recipient> findMatchingRecipients(DonationDTO donationDTO, double radiusInKm) {
-        String pointWkt = String.format("POINT(%f %f)",
-                donationDTO.getDonor().getLocation().getLongitude(),
-                donationDTO.getDonor().getLocation().getLatitude()
-        );
-
-        String type = donationDTO.getDonation().getType();
-        String donorStorageCapability = donationDTO.getDonation().getStorageCapability();
-        int donationQuantity = donationDTO.getDonation().getQuantity();
-
-        String sql = """
-SELECT * FROM recipients r
+    private static final String MATCH_IDS_SQL = """
+SELECT r.id FROM recipients r
+""";
+
+    private static final String NEAREST_SQL = """
+SELECT r.id, r.location_geog <-> ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography AS distance
+FROM recipients r
+""";
+
+    private static final String MATCH_PREDICATES_SQL = """
 WHERE r.status = 'active'
   AND EXISTS (
     SELECT 1 FROM accepted_types t
@@ -35,23 +41,268 @@ WHERE r.status = 'active'
       AND t.type = :type
       AND t.min_quantity <= :donationQuantity
   )
+  AND ST_DWithin(
+        r.location_geog,
+        ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography,
+        :radius
+      )
+""";
+
+    private static final String WITHIN_RADIUS_SQL = """
+SELECT r.id, r.status FROM recipients r
+WHERE ST_DWithin(
+        r.location_geog,
+        ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography,
+        :radius
+      )
+ORDER BY r.id
+""";
+
+    private static final String STORAGE_MASK_SQL = """
+  AND (r.storage_mask & :storageMask) = :storageMask
+""";
+
+    // Fallback for storage types without a code that fits into the mask
+    private static final String STORAGE_EXISTS_SQL = """
   AND EXISTS (
     SELECT 1 FROM storage_capabilities s
     WHERE s.recipient_id = r.id
       AND s.storage_type = :storageCapability
   )
-  AND ST_Distance(
-        r.location::geography,
-        ST_GeomFromText(:point, 4326)::geography
-      ) <= :radius
-""";
-
-        return entityManager.createNativeQuery(sql, Recipient.class)
-                .setParameter("type", type)
-                .setParameter("storageCapability", donorStorageCapability)
-                .setParameter("donationQuantity", donationQuantity)
-                .setParameter("point", pointWkt)
-                .setParameter("radius", radiusInKm * 1000) // km to meters
-                .getResultList();
+""";
+
+    // open_hour_intervals holds local minute-of-week ranges, so the pickup instant is converted per recipient timezone.
+    // AT TIME ZONE fails the whole query on a zone Postgres does not know, so it only runs for zones listed in
+    // known_timezones (the CASE fixes the evaluation order); other recipients count as closed, as in WeeklySchedule.
+    private static final String OPEN_AT_SQL = """
+  AND CASE WHEN EXISTS (SELECT 1 FROM known_timezones z WHERE z.name = r.timezone)
+      THEN EXISTS (
+        SELECT 1 FROM open_hour_intervals w
+        CROSS JOIN LATERAL (
+          SELECT CAST(:openAt AS timestamptz) AT TIME ZONE r.timezone AS local_time
+        ) p
+        WHERE w.recipient_id = r.id
+          AND (EXTRACT(ISODOW FROM p.local_time)::int - 1) * 1440
+              + EXTRACT(HOUR FROM p.local_time)::int * 60
+              + EXTRACT(MINUTE FROM p.local_time)::int
+              BETWEEN w.start_minute AND w.end_minute
+      )
+      ELSE FALSE
+  END
+""";
+
+    private static final String AFTER_CURSOR_SQL = """
+  AND (r.location_geog <-> ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, r.id) > (:afterDistance, :afterId)
+""";
+
+    private static final String NEAREST_ORDER_SQL = """
+ORDER BY r.location_geog <-> ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, r.id
+LIMIT :limit
+""";
+
+    private static final String BATCH_MATCH_SQL = """
+SELECT d.idx, m.id
+FROM (VALUES %s) AS d(idx, lon, lat, type, qty, storage, storage_mask, open_at)
+CROSS JOIN LATERAL (
+  SELECT r.id FROM recipients r
+  WHERE r.status = 'active'
+    AND EXISTS (
+      SELECT 1 FROM accepted_types t
+      WHERE t.recipient_id = r.id
+        AND t.type = d.type
+        AND t.min_quantity <= d.qty
+    )
+    AND CASE WHEN d.storage_mask <> 0
+             THEN (r.storage_mask & d.storage_mask) = d.storage_mask
+             ELSE EXISTS (
+               SELECT 1 FROM storage_capabilities s
+               WHERE s.recipient_id = r.id
+                 AND s.storage_type = d.storage
+             )
+        END
+    AND ST_DWithin(
+          r.location_geog,
+          ST_SetSRID(ST_MakePoint(d.lon, d.lat), 4326)::geography,
+          :radius
+        )
+    AND CASE WHEN EXISTS (SELECT 1 FROM known_timezones z WHERE z.name = r.timezone)
+        THEN EXISTS (
+          SELECT 1 FROM open_hour_intervals w
+          CROSS JOIN LATERAL (
+            SELECT d.open_at AT TIME ZONE r.timezone AS local_time
+          ) p
+          WHERE w.recipient_id = r.id
+            AND (EXTRACT(ISODOW FROM p.local_time)::int - 1) * 1440
+                + EXTRACT(HOUR FROM p.local_time)::int * 60
+                + EXTRACT(MINUTE FROM p.local_time)::int
+                BETWEEN w.start_minute AND w.end_minute
+        )
+        ELSE FALSE
+    END
+) m
+ORDER BY d.idx, m.id
+""";
+
+    private static final String BATCH_VALUES_ROW =
+            "(CAST(:idx%1$d AS int), CAST(:lon%1$d AS float8), CAST(:lat%1$d AS float8), CAST(:type%1$d AS varchar), " +
+            "CAST(:qty%1$d AS int), CAST(:storage%1$d AS varchar), CAST(:storageMask%1$d AS bigint), " +
+            "CAST(:openAt%1$d AS timestamptz))";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Recipient> findMatchingRecipients(DonationDTO donationDTO, double radiusInKm, long storageMask) {
+        return findMatchingRecipients(donationDTO, radiusInKm, storageMask, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Recipient> findMatchingRecipients(DonationDTO donationDTO, double radiusInKm, long storageMask, Instant openAt) {
+        String sql = MATCH_SQL + MATCH_PREDICATES_SQL + storagePredicate(storageMask) + (openAt == null ? "" : OPEN_AT_SQL);
+
+        Query query = entityManager.createNativeQuery(sql, Recipient.class);
+        bindMatchParameters(query, donationDTO, radiusInKm, storageMask, openAt);
+
+        return query.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Recipient> streamMatchingRecipients(DonationDTO donationDTO, double radiusInKm, long storageMask,
+                                                      Instant openAt, int fetchSize) {
+        String sql = MATCH_SQL + MATCH_PREDICATES_SQL + storagePredicate(storageMask) + (openAt == null ? "" : OPEN_AT_SQL);
+
+        Query query = entityManager.createNativeQuery(sql, Recipient.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        bindMatchParameters(query, donationDTO, radiusInKm, storageMask, openAt);
+
+        return query.getResultStream();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findMatchingRecipientIds(double latitude, double longitude, double radiusInKm,
+                                               String type, int quantity, String storageType, long storageMask) {
+        Query query = entityManager.createNativeQuery(MATCH_IDS_SQL + MATCH_PREDICATES_SQL + storagePredicate(storageMask));
+        bindMatchParameters(query, latitude, longitude, radiusInKm, type, quantity, storageType, storageMask, null);
+
+        return ((List<Number>) query.getResultList()).stream()
+                .map(Number::longValue)
+                .toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public LinkedHashMap<Long, String> findStatusesWithinRadius(double latitude, double longitude, double radiusInKm) {
+        Query query = entityManager.createNativeQuery(WITHIN_RADIUS_SQL)
+                .setParameter("longitude", longitude)
+                .setParameter("latitude", latitude)
+                .setParameter("radius", radiusInKm * 1000); // km to meters
+
+        LinkedHashMap<Long, String> statuses = new LinkedHashMap<>();
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            statuses.put(((Number) row[0]).longValue(), (String) row[1]);
+        }
+        return statuses;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public LinkedHashMap<Long, Double> findNearestMatchingRecipientIds(DonationDTO donationDTO, double radiusInKm, long storageMask,
+                                                                       Instant openAt, int limit, Double afterDistance, Long afterId) {
+        boolean afterCursor = afterDistance != null && afterId != null;
+        String sql = NEAREST_SQL + MATCH_PREDICATES_SQL + storagePredicate(storageMask)
+                + (openAt == null ? "" : OPEN_AT_SQL)
+                + (afterCursor ? AFTER_CURSOR_SQL : "")
+                + NEAREST_ORDER_SQL;
+
+        Query query = entityManager.createNativeQuery(sql);
+        bindMatchParameters(query, donationDTO, radiusInKm, storageMask, openAt);
+        query.setParameter("limit", limit);
+        if (afterCursor) {
+            query.setParameter("afterDistance", afterDistance);
+            query.setParameter("afterId", afterId);
+        }
+
+        LinkedHashMap<Long, Double> nearest = new LinkedHashMap<>();
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            nearest.put(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue());
+        }
+        return nearest;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Integer, List<Long>> findMatchingRecipientIdsBatch(Map<Integer, DonationDTO> donations,
+                                                                  Map<Integer, Long> storageMasks,
+                                                                  Map<Integer, Instant> openAt, double radiusInKm) {
+        Map<Integer, List<Long>> matches = new HashMap<>();
+        if (donations.isEmpty()) {
+            return matches;
+        }
+
+        List<Integer> keys = new ArrayList<>(donations.keySet());
+        StringJoiner values = new StringJoiner(",\n    ");
+        for (int i = 0; i < keys.size(); i++) {
+            values.add(String.format(BATCH_VALUES_ROW, i));
+        }
+
+        Query query = entityManager.createNativeQuery(String.format(BATCH_MATCH_SQL, values))
+                .setParameter("radius", radiusInKm * 1000); // km to meters
+
+        for (int i = 0; i < keys.size(); i++) {
+            Integer key = keys.get(i);
+            DonationDTO donationDTO = donations.get(key);
+            DonationDTO.Location location = donationDTO.getDonor().getLocation();
+            DonationDTO.Donation donation = donationDTO.getDonation();
+
+            query.setParameter("idx" + i, key)
+                    .setParameter("lon" + i, location.getLongitude())
+                    .setParameter("lat" + i, location.getLatitude())
+                    .setParameter("type" + i, donation.getType())
+                    .setParameter("qty" + i, donation.getQuantity())
+                    .setParameter("storage" + i, donation.getStorageCapability())
+                    .setParameter("storageMask" + i, storageMasks.get(key))
+                    .setParameter("openAt" + i, OffsetDateTime.ofInstant(openAt.get(key), ZoneOffset.UTC));
+            matches.put(key, new ArrayList<>());
+        }
+
+        for (Object[] row : (List<Object[]>) query.getResultList()) {
+            matches.get(((Number) row[0]).intValue()).add(((Number) row[1]).longValue());
+        }
+        return matches;
+    }
+
+    private static String storagePredicate(long storageMask) {
+        return storageMask != 0 ? STORAGE_MASK_SQL : STORAGE_EXISTS_SQL;
+    }
+
+    private void bindMatchParameters(Query query, DonationDTO donationDTO, double radiusInKm, long storageMask, Instant openAt) {
+        DonationDTO.Location location = donationDTO.getDonor().getLocation();
+        DonationDTO.Donation donation = donationDTO.getDonation();
+
+        bindMatchParameters(query, location.getLatitude(), location.getLongitude(), radiusInKm,
+                donation.getType(), donation.getQuantity(), donation.getStorageCapability(), storageMask, openAt);
+    }
+
+    private void bindMatchParameters(Query query, double latitude, double longitude, double radiusInKm,
+                                     String type, int quantity, String storageType, long storageMask, Instant openAt) {
+        if (storageMask != 0) {
+            query.setParameter("storageMask", storageMask);
+        } else {
+            query.setParameter("storageCapability", storageType);
+        }
+
+        query.setParameter("type", type)
+                .setParameter("donationQuantity", quantity)
+                .setParameter("longitude", longitude)
+                .setParameter("latitude", latitude)
+                .setParameter("radius", radiusInKm * 1000); // km to meters
+
+        if (openAt != null) {
+            query.setParameter("openAt", OffsetDateTime.ofInstant(openAt, ZoneOffset.UTC));
+        }
     }
 }
@@ -2,5 +2,19 @@ package com.recipient.service.repositories;
 
 import com.recipient.service.entities.StorageCapability;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface StorageCapabilityRepository extends JpaRepository<StorageCapability, Long> {}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+
+public interface StorageCapabilityRepository extends JpaRepository<StorageCapability, Long> {
+
+    @Query("select s.recipient.id, s.storageType from StorageCapability s " +
+            "where s.recipient.status = com.recipient.service.entities.Recipient.RecipientStatus.active")
+    List<Object[]> findActiveRecipientStorage();
+
+    @Query("select s.recipient.id, s.storageType from StorageCapability s " +
+            "where s.recipient.id in :recipientIds order by s.id")
+    List<Object[]> findByRecipientIds(@Param("recipientIds") Collection<Long> recipientIds);
+}
@@ -0,0 +1,132 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.models.BatchMatchResultDTO;
+import com.recipient.service.models.DonationDTO;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.RecipientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Matches a list of donations in a single pass: one index sweep (or one LATERAL SQL statement
+ * when the index is not ready), one load of the union of matched recipients and one batched
+ * hydration of their child rows.
+ */
+@Transactional(readOnly = true)
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchMatchService {
+
+    public static final int MAX_BATCH_SIZE = 100;
+
+    private final RecipientRepository recipientRepository;
+    private final RecipientIndexService recipientIndexService;
+    private final RecipientHydrationService recipientHydrationService;
+    private final CapabilityDictionary capabilityDictionary;
+
+    public List<BatchMatchResultDTO> findEligibleRecipientsBatch(List<DonationDTO> donations, double radiusInKm) {
+        if (donations.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " donations can be matched per request.");
+        }
+
+        BatchMatchResultDTO[] results = new BatchMatchResultDTO[donations.size()];
+        Map<Integer, DonationDTO> valid = new LinkedHashMap<>();
+        Map<Integer, Instant> pickupTimes = new HashMap<>();
+
+        for (int i = 0; i < donations.size(); i++) {
+            DonationDTO donationDTO = donations.get(i);
+            if (donationDTO == null || donationDTO.getDonation() == null
+                    || donationDTO.getDonor() == null || donationDTO.getDonor().getLocation() == null) {
+                results[i] = BatchMatchResultDTO.failed(i, "Donation, donor and donor location are required.");
+                continue;
+            }
+            try {
+                if (DonationService.parsePickupWindow(donationDTO) != null) {
+                    throw new IllegalArgumentException("Pickup windows are not supported in batch matching.");
+                }
+                pickupTimes.put(i, DonationService.parsePickupTime(donationDTO));
+                valid.put(i, donationDTO);
+            } catch (RuntimeException e) {
+                // One bad entry fails only its own slot, never the whole batch
+                results[i] = BatchMatchResultDTO.failed(i, e.getMessage());
+            }
+        }
+
+        Map<Integer, List<Long>> matches = recipientIndexService.isIndexReady()
+                ? matchFromIndex(valid, pickupTimes, radiusInKm)
+                : recipientRepository.findMatchingRecipientIdsBatch(valid, storageMasks(valid), pickupTimes, radiusInKm);
+
+        Map<Long, RecipientDTO> dtoById = hydrate(matches);
+
+        for (Map.Entry<Integer, List<Long>> entry : matches.entrySet()) {
+            List<RecipientDTO> recipients = entry.getValue().stream()
+                    .map(dtoById::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            results[entry.getKey()] = new BatchMatchResultDTO(entry.getKey(), recipients, null);
+        }
+
+        log.info("Matched batch of {} donations against {} distinct recipients", donations.size(), dtoById.size());
+        return Arrays.asList(results);
+    }
+
+    private Map<Integer, List<Long>> matchFromIndex(Map<Integer, DonationDTO> donations,
+                                                   Map<Integer, Instant> pickupTimes, double radiusInKm) {
+        Map<Integer, List<Long>> candidates = new HashMap<>();
+        Set<Long> allCandidateIds = new HashSet<>();
+        for (Map.Entry<Integer, DonationDTO> entry : donations.entrySet()) {
+            List<Long> ids = recipientIndexService.findCandidateIds(entry.getValue(), radiusInKm);
+            candidates.put(entry.getKey(), ids);
+            allCandidateIds.addAll(ids);
+        }
+
+        Map<Long, Recipient> byId = new HashMap<>();
+        if (!allCandidateIds.isEmpty()) {
+            List<Recipient> recipients = recipientRepository.findByIdIn(allCandidateIds);
+            recipientIndexService.preloadSchedules(recipients);
+            for (Recipient recipient : recipients) {
+                byId.put(recipient.getId(), recipient);
+            }
+        }
+
+        Map<Integer, List<Long>> matches = new HashMap<>();
+        for (Map.Entry<Integer, List<Long>> entry : candidates.entrySet()) {
+            Instant pickupTime = pickupTimes.get(entry.getKey());
+            matches.put(entry.getKey(), entry.getValue().stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .filter(recipient -> recipientIndexService.scheduleFor(recipient).isOpenAt(pickupTime))
+                    .map(Recipient::getId)
+                    .toList());
+        }
+        return matches;
+    }
+
+    private Map<Integer, Long> storageMasks(Map<Integer, DonationDTO> donations) {
+        Map<Integer, Long> storageMasks = new HashMap<>();
+        donations.forEach((key, donationDTO) ->
+                storageMasks.put(key, capabilityDictionary.storageMaskOf(donationDTO.getDonation().getStorageCapability())));
+        return storageMasks;
+    }
+
+    private Map<Long, RecipientDTO> hydrate(Map<Integer, List<Long>> matches) {
+        Set<Long> matchedIds = new HashSet<>();
+        matches.values().forEach(matchedIds::addAll);
+        if (matchedIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, RecipientDTO> dtoById = new HashMap<>();
+        for (RecipientDTO dto : recipientHydrationService.toDTOList(recipientRepository.findByIdIn(matchedIds))) {
+            dtoById.put(dto.getId(), dto);
+        }
+        return dtoById;
+    }
+}
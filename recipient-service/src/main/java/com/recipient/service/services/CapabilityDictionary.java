@@ -0,0 +1,147 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.CapabilityCode;
+import com.recipient.service.repositories.CapabilityCodeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps capability strings to the integer codes stored in {@code capability_codes}.
+ * Codes are assigned once and never change, so they are cached for the lifetime of the service.
+ * Values without a code are cached too, briefly, so requests naming an unknown capability do not
+ * query the table every time; another instance may assign the code in the meantime.
+ * Only codes below {@link #MASK_BITS} fit into a bitmask column; matching on a value with a
+ * larger code falls back to the child table.
+ */
+@Service
+@Slf4j
+public class CapabilityDictionary {
+
+    public static final int MASK_BITS = Long.SIZE;
+
+    // Serializes code assignment across service instances
+    private static final long ASSIGN_LOCK_KEY = 0x5245434950L;
+
+    private static final long UNKNOWN_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+    // Values come from requests, so the negative cache is cleared rather than allowed to grow without bound
+    private static final int MAX_UNKNOWN = 10_000;
+
+    private final CapabilityCodeRepository capabilityCodeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate assignTransaction;
+
+    private final Map<CapabilityCode.Kind, Map<String, Integer>> codes = new EnumMap<>(CapabilityCode.Kind.class);
+    // Value without a code to the System.nanoTime() its lookup expires
+    private final Map<CapabilityCode.Kind, Map<String, Long>> unknown = new EnumMap<>(CapabilityCode.Kind.class);
+
+    public CapabilityDictionary(CapabilityCodeRepository capabilityCodeRepository, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager) {
+        this.capabilityCodeRepository = capabilityCodeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Own transaction so a rolled back caller never leaves a cached code that is not in the table
+        this.assignTransaction = new TransactionTemplate(transactionManager);
+        this.assignTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (CapabilityCode.Kind kind : CapabilityCode.Kind.values()) {
+            codes.put(kind, new ConcurrentHashMap<>());
+            unknown.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Existing code of {@code value}, without assigning one.
+     */
+    public OptionalInt codeOf(CapabilityCode.Kind kind, String value) {
+        if (value == null) return OptionalInt.empty();
+
+        Integer code = codes.get(kind).get(value);
+        if (code == null) {
+            Map<String, Long> unknownOfKind = unknown.get(kind);
+            Long expiresAt = unknownOfKind.get(value);
+            if (expiresAt != null && expiresAt - System.nanoTime() > 0) return OptionalInt.empty();
+
+            code = capabilityCodeRepository.findByKindAndValue(kind, value)
+                    .map(CapabilityCode::getCode)
+                    .orElse(null);
+            if (code == null) {
+                if (unknownOfKind.size() >= MAX_UNKNOWN) {
+                    unknownOfKind.clear();
+                }
+                unknownOfKind.put(value, System.nanoTime() + UNKNOWN_TTL_NANOS);
+                return OptionalInt.empty();
+            }
+            codes.get(kind).put(value, code);
+            unknownOfKind.remove(value);
+        }
+        return OptionalInt.of(code);
+    }
+
+    /**
+     * Mask bit of {@code value}, or 0 when it has no code yet or its code does not fit into a mask.
+     */
+    public long maskBitOf(CapabilityCode.Kind kind, String value) {
+        OptionalInt code = codeOf(kind, value);
+        return code.isPresent() && code.getAsInt() < MASK_BITS ? 1L << code.getAsInt() : 0L;
+    }
+
+    /**
+     * Storage mask for the match queries: the storage type's bit, or 0 when they have to check the
+     * storage_capabilities table instead.
+     */
+    public long storageMaskOf(String storageType) {
+        return maskBitOf(CapabilityCode.Kind.STORAGE, storageType);
+    }
+
+    /**
+     * Bitmask of {@code values}, assigning codes to values seen for the first time.
+     */
+    public long maskOf(CapabilityCode.Kind kind, Collection<String> values) {
+        long mask = 0;
+        if (values == null) return mask;
+
+        for (String value : values) {
+            if (value == null) continue;
+            int code = assign(kind, value);
+            if (code < MASK_BITS) {
+                mask |= 1L << code;
+            } else {
+                log.warn("{} '{}' has code {} beyond the bitmask, matching on it uses the child table", kind, value, code);
+            }
+        }
+        return mask;
+    }
+
+    private int assign(CapabilityCode.Kind kind, String value) {
+        OptionalInt existing = codeOf(kind, value);
+        if (existing.isPresent()) return existing.getAsInt();
+
+        Integer code = assignTransaction.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?)", Integer.class, ASSIGN_LOCK_KEY);
+
+            List<Integer> assigned = jdbcTemplate.queryForList(
+                    "SELECT code FROM capability_codes WHERE kind = ? AND value = ?", Integer.class, kind.name(), value);
+            if (!assigned.isEmpty()) return assigned.get(0);
+
+            Integer next = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(code) + 1, 0) FROM capability_codes WHERE kind = ?", Integer.class, kind.name());
+            jdbcTemplate.update("INSERT INTO capability_codes (kind, value, code) VALUES (?, ?, ?)", kind.name(), value, next);
+            log.info("Assigned code {} to {} '{}'", next, kind, value);
+            return next;
+        });
+
+        codes.get(kind).put(value, code);
+        unknown.get(kind).remove(value);
+        return code;
+    }
+}
@@ -1,81 +1,429 @@
 package com.recipient.service.services;
 
-import com.recipient.service.entities.OpenHour;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.recipient.service.entities.Recipient;
+import com.recipient.service.index.MatchCandidateCache;
+import com.recipient.service.index.RecipientSpatialIndex;
+import com.recipient.service.index.WeeklySchedule;
 import com.recipient.service.models.DonationDTO;
+import com.recipient.service.models.MatchExplainDTO;
 import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.models.RecipientPageDTO;
+import com.recipient.service.repositories.AcceptedTypeRepository;
 import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.utils.RecipientChildren;
 import com.recipient.service.utils.RecipientMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.time.format.DateTimeParseException;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+// Read-only transactions are routed to a replica when read replicas are configured
+@Transactional(readOnly = true)
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class DonationService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Tag values of the recipient.match.stage timer
+    static final String STAGE_SQL = "sql";
+    static final String STAGE_CANDIDATES = "candidates";
+    static final String STAGE_OPEN_HOURS = "open_hours";
+    static final String STAGE_CHILDREN = "children";
+    static final String STAGE_MAPPING = "mapping";
+    static final String STAGE_CARDS = "cards";
+
     private final RecipientRepository recipientRepository;
+    private final RecipientHydrationService recipientHydrationService;
+    private final RecipientIndexService recipientIndexService;
+    private final MatchCandidateCache matchCandidateCache;
+    private final AcceptedTypeRepository acceptedTypeRepository;
+    private final CapabilityDictionary capabilityDictionary;
     private final RecipientMapper recipientMapper;
+    private final MatchExplainService matchExplainService;
+    private final RecipientCardService recipientCardService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     public List<RecipientDTO> findEligibleRecipients(DonationDTO donationDTO, double radiusInKm) {
+        return findEligibleRecipients(donationDTO, radiusInKm, false);
+    }
+
+    /**
+     * @param includeNextOpenSlot when true, recipients closed at pickup time are returned as well,
+     *                            flagged with {@code open_at_pickup=false} and their next open slot
+     */
+    public List<RecipientDTO> findEligibleRecipients(DonationDTO donationDTO, double radiusInKm, boolean includeNextOpenSlot) {
+        return match(donationDTO, radiusInKm, includeNextOpenSlot, null);
+    }
+
+    /**
+     * Runs the same match as {@link #findEligibleRecipients(DonationDTO, double, boolean)} and adds the
+     * stage timings, the candidate count after each filter and the reason each nearby recipient was dropped.
+     */
+    public MatchExplainDTO explainEligibleRecipients(DonationDTO donationDTO, double radiusInKm, boolean includeNextOpenSlot) {
+        Map<String, Long> stageNanos = new LinkedHashMap<>();
+        List<RecipientDTO> result = match(donationDTO, radiusInKm, includeNextOpenSlot, stageNanos);
+        return matchExplainService.explain(donationDTO, radiusInKm, includeNextOpenSlot, result, stageNanos);
+    }
+
+    /**
+     * Same result as {@link #findEligibleRecipients(DonationDTO, double)}, already serialized as a JSON array.
+     * Built from the precomputed recipient cards, so matched recipients are not hydrated or mapped;
+     * falls back to serializing the DTOs for pickup windows or when cards are disabled.
+     */
+    public byte[] findEligibleRecipientsJson(DonationDTO donationDTO, double radiusInKm) {
+        if (!recipientCardService.isEnabled() || parsePickupWindow(donationDTO) != null) {
+            try {
+                return objectMapper.writeValueAsBytes(findEligibleRecipients(donationDTO, radiusInKm));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Instant donationPickupTime = parsePickupTime(donationDTO);
+        List<Recipient> recipients = findOpenAt(donationDTO, radiusInKm, donationPickupTime, null);
+        log.debug("Recipients after backend filtering: {}", recipients.size());
+        return timed(STAGE_CARDS, null, () -> recipientCardService.toJsonArray(recipients));
+    }
+
+    /**
+     * @param stageNanos collects per-stage durations when not null (explain mode)
+     */
+    private List<RecipientDTO> match(DonationDTO donationDTO, double radiusInKm, boolean includeNextOpenSlot,
+                                     Map<String, Long> stageNanos) {
+
+        Instant[] pickupWindow = parsePickupWindow(donationDTO);
+        if (pickupWindow != null) {
+            return findEligibleRecipientsInWindow(donationDTO, radiusInKm, pickupWindow[0], pickupWindow[1], stageNanos);
+        }
+
+        Instant donationPickupTime = parsePickupTime(donationDTO);
+
+        if (!includeNextOpenSlot) {
+            List<RecipientDTO> result = hydrate(findOpenAt(donationDTO, radiusInKm, donationPickupTime, stageNanos), stageNanos);
+            log.debug("Recipients after backend filtering: {}", result.size());
+            return result;
+        }
+
+        List<Recipient> recipients = timed(STAGE_CANDIDATES, stageNanos, () -> findCandidates(donationDTO, radiusInKm));
+
+        log.debug("Recipients after candidate filtering: {}", recipients.size());
+
+        List<WeeklySchedule> schedules = timed(STAGE_OPEN_HOURS, stageNanos, () -> {
+            recipientIndexService.preloadSchedules(recipients);
+            return recipients.stream().map(recipientIndexService::scheduleFor).toList();
+        });
+
+        List<RecipientDTO> result = hydrate(recipients, stageNanos);
+
+        for (int i = 0; i < result.size(); i++) {
+            RecipientDTO dto = result.get(i);
+            WeeklySchedule schedule = schedules.get(i);
+            boolean open = schedule.isOpenAt(donationPickupTime);
+            dto.setOpenAtPickup(open);
+            if (!open) {
+                schedule.nextOpenAt(donationPickupTime)
+                        .ifPresent(slot -> dto.setNextOpenSlot(slot.toString()));
+            }
+        }
+
+        log.debug("Recipients after backend filtering: {}", result.size());
+
+        return result;
+    }
+
+    /**
+     * Recipients matching the donation that are open at pickup time, in Postgres when neither
+     * the index nor the candidate cache is available, otherwise against the in-memory schedules.
+     */
+    private List<Recipient> findOpenAt(DonationDTO donationDTO, double radiusInKm, Instant donationPickupTime,
+                                       Map<String, Long> stageNanos) {
+        if (!matchCandidateCache.isEnabled() && !recipientIndexService.isIndexReady()) {
+            // Availability is filtered in Postgres, only open recipients come back
+            long storageMask = capabilityDictionary.storageMaskOf(donationDTO.getDonation().getStorageCapability());
+            List<Recipient> recipients = timed(STAGE_SQL, stageNanos,
+                    () -> recipientRepository.findMatchingRecipients(donationDTO, radiusInKm, storageMask, donationPickupTime));
+            log.debug("Recipients after SQL filtering: {}", recipients.size());
+            return recipients;
+        }
+
+        List<Recipient> recipients = timed(STAGE_CANDIDATES, stageNanos, () -> findCandidates(donationDTO, radiusInKm));
+
+        log.debug("Recipients after candidate filtering: {}", recipients.size());
+
+        return timed(STAGE_OPEN_HOURS, stageNanos, () -> {
+            recipientIndexService.preloadSchedules(recipients);
+            List<Recipient> open = new ArrayList<>();
+            for (Recipient recipient : recipients) {
+                if (recipientIndexService.scheduleFor(recipient).isOpenAt(donationPickupTime)) {
+                    open.add(recipient);
+                }
+            }
+            return open;
+        });
+    }
+
+    /**
+     * Returns recipients open at some point of the pickup window, ordered by their earliest open
+     * slot, each flagged with {@code earliest_open_slot}.
+     */
+    private List<RecipientDTO> findEligibleRecipientsInWindow(DonationDTO donationDTO, double radiusInKm,
+                                                              Instant windowStart, Instant windowEnd,
+                                                              Map<String, Long> stageNanos) {
+        List<Recipient> recipients = timed(STAGE_CANDIDATES, stageNanos, () -> findCandidates(donationDTO, radiusInKm));
 
-        List<Recipient> recipients =  recipientRepository.findMatchingRecipients(donationDTO, radiusInKm); // 25km radius
+        log.debug("Recipients after candidate filtering: {}", recipients.size());
 
-        log.info("Recipients after SQL filtering: {}", recipients);
+        Map<Long, Instant> earliestSlots = new HashMap<>();
+        List<Recipient> eligible = new ArrayList<>();
+        timed(STAGE_OPEN_HOURS, stageNanos, () -> {
+            recipientIndexService.preloadSchedules(recipients);
+            for (Recipient recipient : recipients) {
+                recipientIndexService.scheduleFor(recipient).earliestOpenIn(windowStart, windowEnd)
+                        .ifPresent(slot -> {
+                            earliestSlots.put(recipient.getId(), slot);
+                            eligible.add(recipient);
+                        });
+            }
+            return null;
+        });
+        eligible.sort(Comparator.comparing((Recipient recipient) -> earliestSlots.get(recipient.getId()))
+                .thenComparing(Recipient::getId));
+
+        List<RecipientDTO> result = hydrate(eligible, stageNanos);
+        for (RecipientDTO dto : result) {
+            dto.setEarliestOpenSlot(earliestSlots.get(dto.getId()).toString());
+        }
+
+        log.debug("Recipients open within pickup window: {}", result.size());
+
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} eligible recipients ordered by distance, continuing after {@code cursor}.
+     * Uses KNN ordering on the geography index, so the cost follows {@code limit} rather than area density.
+     */
+    public RecipientPageDTO findNearestRecipients(DonationDTO donationDTO, double radiusInKm, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        if (parsePickupWindow(donationDTO) != null) {
+            throw new IllegalArgumentException("Pickup windows are not supported by nearest search.");
+        }
+        Instant donationPickupTime = parsePickupTime(donationDTO);
+
+        Double afterDistance = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterDistance = Double.valueOf(parts[0]);
+            afterId = Long.valueOf(parts[1]);
+        }
 
+        // Fetch one extra row to know whether another page exists
+        LinkedHashMap<Long, Double> nearest = recipientRepository.findNearestMatchingRecipientIds(
+                donationDTO, radiusInKm, capabilityDictionary.storageMaskOf(donationDTO.getDonation().getStorageCapability()),
+                donationPickupTime, limit + 1, afterDistance, afterId);
+
+        boolean hasMore = nearest.size() > limit;
+        List<Long> pageIds = nearest.keySet().stream().limit(limit).toList();
+        if (pageIds.isEmpty()) {
+            return new RecipientPageDTO(List.of(), null);
+        }
+
+        Map<Long, Recipient> byId = new HashMap<>();
+        for (Recipient recipient : recipientRepository.findByIdIn(pageIds)) {
+            byId.put(recipient.getId(), recipient);
+        }
+        List<Recipient> ordered = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        List<RecipientDTO> page = recipientHydrationService.toDTOList(ordered);
+        for (RecipientDTO dto : page) {
+            dto.setDistanceKm(nearest.get(dto.getId()) / 1000);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Long lastId = pageIds.get(pageIds.size() - 1);
+            nextCursor = encodeCursor(nearest.get(lastId), lastId);
+        }
+        return new RecipientPageDTO(page, nextCursor);
+    }
+
+    /**
+     * Callers that accept a pickup window must check {@link #parsePickupWindow} first; a donation with
+     * neither is rejected here rather than failing on the missing time.
+     */
+    static Instant parsePickupTime(DonationDTO donationDTO) {
+        String pickupTime = donationDTO.getDonation().getDonationPickupTime();
+        if (pickupTime == null) {
+            throw new IllegalArgumentException("donation_pickup_time or pickup window is required");
+        }
         // Parse donor's availableUntilUtc to Instant
-        Instant donationPickupTime;
         try {
-            donationPickupTime = Instant.parse(donationDTO.getDonation().getDonationPickupTime());
+            return Instant.parse(pickupTime);
         } catch (DateTimeParseException e) {
-            log.error("Invalid date format: {}", donationDTO.getDonation().getDonationPickupTime());
+            log.error("Invalid date format: {}", pickupTime);
             throw new IllegalArgumentException("Invalid donation_pickup_time format.");
         }
+    }
 
-        System.out.println("Donation Pickup Time: " + donationPickupTime);
+    /**
+     * Loads the child collections with one query each, then maps; timed as two stages.
+     */
+    private List<RecipientDTO> hydrate(List<Recipient> recipients, Map<String, Long> stageNanos) {
+        if (recipients.isEmpty()) {
+            return List.of();
+        }
 
-        recipients  = recipients.stream()
-                .filter(recipient -> isRecipientOpenAtPickup(recipient, donationPickupTime))
-                .toList();
+        RecipientChildren children = timed(STAGE_CHILDREN, stageNanos,
+                () -> recipientHydrationService.loadChildren(recipients.stream().map(Recipient::getId).toList()));
+        return timed(STAGE_MAPPING, stageNanos,
+                () -> recipients.stream().map(recipient -> recipientMapper.toDTO(recipient, children)).toList());
+    }
+
+    private <T> T timed(String stage, Map<String, Long> stageNanos, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("recipient.match.stage")
+                    .tag("stage", stage)
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (stageNanos != null) {
+                stageNanos.merge(stage, elapsed, Long::sum);
+            }
+        }
+    }
 
-        log.info("Recipients after backend filtering: {}", recipients);
+    /**
+     * Returns {@code [start, end]} when the donation carries a pickup window, otherwise null.
+     */
+    static Instant[] parsePickupWindow(DonationDTO donationDTO) {
+        String start = donationDTO.getDonation().getPickupWindowStart();
+        String end = donationDTO.getDonation().getPickupWindowEnd();
+        if (start == null && end == null) return null;
 
-        return recipientMapper.toDTOList(recipients);
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Both pickup_window_start and pickup_window_end are required.");
+        }
+        try {
+            Instant windowStart = Instant.parse(start);
+            Instant windowEnd = Instant.parse(end);
+            if (windowEnd.isBefore(windowStart)) {
+                throw new IllegalArgumentException("pickup_window_end must not be before pickup_window_start.");
+            }
+            return new Instant[]{windowStart, windowEnd};
+        } catch (DateTimeParseException e) {
+            log.error("Invalid pickup window: {} - {}", start, end);
+            throw new IllegalArgumentException("Invalid pickup window format.");
+        }
     }
 
-    private boolean isRecipientOpenAtPickup(Recipient recipient, Instant donationPickupTimeUtc) {
-        ZoneId recipientZone = ZoneId.of(recipient.getTimezone());
-        ZonedDateTime pickupDateTime = donationPickupTimeUtc.atZone(recipientZone);
+    private static String encodeCursor(double distanceMeters, Long recipientId) {
+        String raw = distanceMeters + ":" + recipientId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-        OpenHour.DayOfWeek pickupDay = OpenHour.DayOfWeek.valueOf(pickupDateTime.getDayOfWeek().name().toLowerCase());
-        LocalTime pickupTime = pickupDateTime.toLocalTime();
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            Double.parseDouble(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.", e);
+        }
+    }
 
-        log.info("Checking recipient {} for pickup day {} and time {}", recipient.getId(), pickupDay, pickupTime);
+    private List<Recipient> findCandidates(DonationDTO donationDTO, double radiusInKm) {
+        if (matchCandidateCache.isEnabled()) {
+            return findCachedCandidates(donationDTO, radiusInKm);
+        }
 
-        for (OpenHour hour : recipient.getOpenHours()) {
-            log.info("OpenHour: day={}, open={}, close={}", hour.getDayOfWeek(), hour.getOpenTime(), hour.getCloseTime());
+        if (!recipientIndexService.isIndexReady()) {
+            return recipientRepository.findMatchingRecipients(donationDTO, radiusInKm,
+                    capabilityDictionary.storageMaskOf(donationDTO.getDonation().getStorageCapability()));
+        }
 
-            if (hour.getDayOfWeek() != pickupDay) {
-                log.info("Skipping due to day mismatch");
-                continue;
-            }
+        List<Long> candidateIds = recipientIndexService.findCandidateIds(donationDTO, radiusInKm);
+        if (candidateIds.isEmpty()) {
+            return List.of();
+        }
+        return recipientRepository.findByIdIn(candidateIds);
+    }
 
-            LocalTime open = hour.getOpenTime().toLocalTime();
-            LocalTime close = hour.getCloseTime().toLocalTime();
+    /**
+     * Resolves candidates through {@link MatchCandidateCache}, then re-applies the exact distance and
+     * quantity checks because cached ids are a superset for the quantized request.
+     */
+    private List<Recipient> findCachedCandidates(DonationDTO donationDTO, double radiusInKm) {
+        DonationDTO.Location location = donationDTO.getDonor().getLocation();
+        DonationDTO.Donation donation = donationDTO.getDonation();
 
-            if (!pickupTime.isBefore(open) && !pickupTime.isAfter(close)) {
-                log.info("Recipient {} is open at pickup time", recipient.getId());
-                return true;
-            }
+        MatchCandidateCache.Key key = matchCandidateCache.keyFor(location.getLatitude(), location.getLongitude(),
+                radiusInKm, donation.getType(), donation.getQuantity(), donation.getStorageCapability());
+        List<Long> candidateIds = matchCandidateCache.get(key, this::loadCandidateSuperset);
+        if (candidateIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<Recipient> withinRadius = recipientRepository.findByIdIn(candidateIds).stream()
+                .filter(recipient -> recipient.getLatitude() != null && recipient.getLongitude() != null)
+                .filter(recipient -> RecipientSpatialIndex.distanceKm(location.getLatitude(), location.getLongitude(),
+                        recipient.getLatitude().doubleValue(), recipient.getLongitude().doubleValue()) <= radiusInKm)
+                .toList();
+
+        if (withinRadius.isEmpty() || donation.getQuantity() == key.getQuantityBucket()) {
+            return withinRadius;
         }
 
-        log.info("Recipient {} is NOT open at pickup time", recipient.getId());
-        return false;
+        Set<Long> accepting = new HashSet<>();
+        for (Object[] row : acceptedTypeRepository.findByRecipientIds(withinRadius.stream().map(Recipient::getId).toList())) {
+            Integer minQuantity = (Integer) row[3];
+            if (donation.getType().equals(row[1]) && minQuantity != null && minQuantity <= donation.getQuantity()) {
+                accepting.add((Long) row[0]);
+            }
+        }
+        return withinRadius.stream()
+                .filter(recipient -> accepting.contains(recipient.getId()))
+                .toList();
     }
 
+    private List<Long> loadCandidateSuperset(MatchCandidateCache.Key key) {
+        double[] circle = matchCandidateCache.queryCircle(key);
+
+        if (recipientIndexService.isIndexReady()) {
+            return recipientIndexService.findCandidateIds(circle[0], circle[1], circle[2],
+                    key.getType(), key.getQuantityBucket(), key.getStorageType());
+        }
+        return recipientRepository.findMatchingRecipientIds(circle[0], circle[1], circle[2],
+                key.getType(), key.getQuantityBucket(), key.getStorageType(),
+                capabilityDictionary.storageMaskOf(key.getStorageType()));
+    }
 }
@@ -0,0 +1,132 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.index.WeeklySchedule;
+import com.recipient.service.models.DonationDTO;
+import com.recipient.service.models.MatchExplainDTO;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.AcceptedTypeRepository;
+import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.repositories.StorageCapabilityRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Builds the explain output of a match: re-evaluates every recipient within the radius filter by
+ * filter against the database and records the first filter each one failed. Only used when the
+ * caller asks for it, so the regular match path carries none of this work.
+ */
+@Service
+@RequiredArgsConstructor
+public class MatchExplainService {
+
+    public static final int MAX_DROPPED = 1000;
+
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final RecipientRepository recipientRepository;
+    private final AcceptedTypeRepository acceptedTypeRepository;
+    private final StorageCapabilityRepository storageCapabilityRepository;
+    private final RecipientIndexService recipientIndexService;
+
+    public MatchExplainDTO explain(DonationDTO donationDTO, double radiusInKm, boolean includeNextOpenSlot,
+                                   List<RecipientDTO> result, Map<String, Long> stageNanos) {
+        DonationDTO.Location location = donationDTO.getDonor().getLocation();
+        DonationDTO.Donation donation = donationDTO.getDonation();
+
+        Map<String, Integer> remaining = new LinkedHashMap<>();
+        Map<Long, String> dropped = new LinkedHashMap<>();
+
+        Map<Long, String> statuses = recipientRepository.findStatusesWithinRadius(
+                location.getLatitude(), location.getLongitude(), radiusInKm);
+        remaining.put("within_radius", statuses.size());
+
+        List<Long> candidates = new ArrayList<>();
+        statuses.forEach((id, status) -> {
+            if (Recipient.RecipientStatus.active.name().equals(status)) {
+                candidates.add(id);
+            } else {
+                dropped.put(id, "status_" + status);
+            }
+        });
+        remaining.put("active", candidates.size());
+
+        Map<Long, Integer> minQuantities = new HashMap<>();
+        for (Object[] row : inChunks(candidates, acceptedTypeRepository::findByRecipientIds)) {
+            if (donation.getType() != null && donation.getType().equals(row[1]) && row[3] != null) {
+                minQuantities.merge((Long) row[0], (Integer) row[3], Math::min);
+            }
+        }
+        filter(candidates, dropped, id -> minQuantities.containsKey(id) ? null : "type_not_accepted");
+        remaining.put("accepts_type", candidates.size());
+
+        filter(candidates, dropped, id -> minQuantities.get(id) <= donation.getQuantity() ? null : "quantity_below_minimum");
+        remaining.put("accepts_quantity", candidates.size());
+
+        Set<Long> storing = new HashSet<>();
+        for (Object[] row : inChunks(candidates, storageCapabilityRepository::findByRecipientIds)) {
+            if (donation.getStorageCapability() != null && donation.getStorageCapability().equals(row[1])) {
+                storing.add((Long) row[0]);
+            }
+        }
+        filter(candidates, dropped, id -> storing.contains(id) ? null : "storage_not_supported");
+        remaining.put("supports_storage", candidates.size());
+
+        Instant[] pickupWindow = DonationService.parsePickupWindow(donationDTO);
+        if (pickupWindow != null || !includeNextOpenSlot) {
+            Instant pickupTime = pickupWindow == null ? DonationService.parsePickupTime(donationDTO) : null;
+
+            List<Recipient> recipients = inChunks(candidates, recipientRepository::findByIdIn);
+            recipientIndexService.preloadSchedules(recipients);
+
+            Set<Long> open = new HashSet<>();
+            for (Recipient recipient : recipients) {
+                WeeklySchedule schedule = recipientIndexService.scheduleFor(recipient);
+                boolean available = pickupWindow != null
+                        ? schedule.earliestOpenIn(pickupWindow[0], pickupWindow[1]).isPresent()
+                        : schedule.isOpenAt(pickupTime);
+                if (available) {
+                    open.add(recipient.getId());
+                }
+            }
+            String reason = pickupWindow != null ? "not_open_in_window" : "closed_at_pickup";
+            filter(candidates, dropped, id -> open.contains(id) ? null : reason);
+            remaining.put("open", candidates.size());
+        }
+        remaining.put("returned", result.size());
+
+        Map<String, Double> stageMs = new LinkedHashMap<>();
+        stageNanos.forEach((stage, nanos) -> stageMs.put(stage, nanos / 1_000_000.0));
+
+        List<MatchExplainDTO.DroppedRecipient> droppedList = dropped.entrySet().stream()
+                .limit(MAX_DROPPED)
+                .map(entry -> new MatchExplainDTO.DroppedRecipient(entry.getKey(), entry.getValue()))
+                .toList();
+
+        return new MatchExplainDTO(result, stageMs, remaining, droppedList, dropped.size() > MAX_DROPPED);
+    }
+
+    /**
+     * Removes the ids {@code reasonOf} returns a reason for and records that reason.
+     */
+    private static void filter(List<Long> candidates, Map<Long, String> dropped, Function<Long, String> reasonOf) {
+        candidates.removeIf(id -> {
+            String reason = reasonOf.apply(id);
+            if (reason == null) return false;
+            dropped.put(id, reason);
+            return true;
+        });
+    }
+
+    private static <T> List<T> inChunks(List<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> rows = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            rows.addAll(query.apply(ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE))));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,167 @@
+package com.recipient.service.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.utils.RecipientChildren;
+import com.recipient.service.utils.RecipientMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps a pre-serialized JSON card per recipient in {@code recipients.card_json}, written whenever
+ * the recipient is saved or imported. Match responses are assembled by splicing these cards into a
+ * JSON array, so the child collections are not loaded and no DTOs are built or serialized per request.
+ * Cards hold the static recipient fields only; per-request flags (open_at_pickup, next_open_slot,
+ * earliest_open_slot) still go through hydration.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientCardService {
+
+    private static final String UPDATE_CARD = "UPDATE recipients SET card_json = ? WHERE id = ?";
+    private static final String SELECT_CARDS = "SELECT id, card_json FROM recipients WHERE id = ANY(?)";
+    private static final String SELECT_MISSING_CARDS =
+            "SELECT id FROM recipients WHERE card_json IS NULL ORDER BY id LIMIT ?";
+
+    private final RecipientRepository recipientRepository;
+    private final RecipientHydrationService recipientHydrationService;
+    private final RecipientMapper recipientMapper;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${recipient.cards.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recipient.cards.backfill-chunk-size:500}")
+    private int backfillChunkSize;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuilds the cards of the given recipients from the database. Must run inside the
+     * transaction that wrote them, so the child rows are visible and the card commits with them.
+     */
+    public void refreshCards(Collection<Long> recipientIds) {
+        if (!enabled || recipientIds.isEmpty()) {
+            return;
+        }
+
+        List<Recipient> recipients = recipientRepository.findByIdIn(recipientIds);
+        RecipientChildren children = recipientHydrationService.loadChildren(recipientIds);
+
+        List<Object[]> updates = new ArrayList<>(recipients.size());
+        for (Recipient recipient : recipients) {
+            updates.add(new Object[]{toCard(recipientMapper.toDTO(recipient, children)), recipient.getId()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_CARD, updates);
+        log.debug("Refreshed cards for {} recipients", updates.size());
+    }
+
+    /**
+     * Writes the recipients as a JSON array, in the given order. Recipients without a card yet
+     * (saved before cards existed and not backfilled) are hydrated and serialized instead.
+     */
+    public byte[] toJsonArray(List<Recipient> recipients) {
+        Map<Long, String> cards = findCards(recipients.stream().map(Recipient::getId).toList());
+
+        List<Recipient> missing = new ArrayList<>();
+        for (Recipient recipient : recipients) {
+            if (cards.get(recipient.getId()) == null) {
+                missing.add(recipient);
+            }
+        }
+        if (!missing.isEmpty()) {
+            log.debug("{} matched recipients have no card, hydrating them", missing.size());
+            for (RecipientDTO dto : recipientHydrationService.toDTOList(missing)) {
+                cards.put(dto.getId(), toCard(dto));
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(recipients.size() * 512 + 2);
+        out.write('[');
+        for (int i = 0; i < recipients.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(cards.get(recipients.get(i).getId()).getBytes(StandardCharsets.UTF_8));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private Map<Long, String> findCards(List<Long> recipientIds) {
+        Map<Long, String> cards = new HashMap<>();
+        if (recipientIds.isEmpty()) {
+            return cards;
+        }
+
+        jdbcTemplate.query(SELECT_CARDS,
+                ps -> {
+                    Array ids = ps.getConnection().createArrayOf("bigint", recipientIds.toArray());
+                    ps.setArray(1, ids);
+                },
+                rs -> {
+                    cards.put(rs.getLong(1), rs.getString(2));
+                });
+        return cards;
+    }
+
+    private String toCard(RecipientDTO dto) {
+        try {
+            return objectMapper.writeValueAsString(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to serialize recipient card " + dto.getId(), e);
+        }
+    }
+
+    /**
+     * Fills in cards for recipients saved before the column existed, in the background so
+     * startup is not held up; until then those recipients are hydrated per request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCards() {
+        if (!enabled) {
+            return;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            long filled = 0;
+            List<Long> ids;
+            do {
+                ids = transactionTemplate.execute(status -> {
+                    List<Long> chunk = jdbcTemplate.queryForList(SELECT_MISSING_CARDS, Long.class, backfillChunkSize);
+                    refreshCards(chunk);
+                    return chunk;
+                });
+                filled += ids.size();
+            } while (ids.size() == backfillChunkSize);
+
+            if (filled > 0) {
+                log.info("Backfilled cards for {} recipients", filled);
+            }
+        }).exceptionally(e -> {
+            log.error("Recipient card backfill failed", e);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,192 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.OpenHour;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.*;
+import com.recipient.service.utils.RecipientChildren;
+import com.recipient.service.utils.RecipientMapper;
+import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Maps match results to DTOs with one query per child collection for the whole batch,
+ * instead of lazily loading five collections per recipient. With
+ * {@code recipient.hydration.mode=concurrent} the five queries run in parallel on virtual threads.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientHydrationService implements DisposableBean {
+
+    static final String MODE_SERIAL = "serial";
+    static final String MODE_CONCURRENT = "concurrent";
+
+    private final ContactRepository contactRepository;
+    private final AcceptedTypeRepository acceptedTypeRepository;
+    private final CapabilityRepository capabilityRepository;
+    private final StorageCapabilityRepository storageCapabilityRepository;
+    private final OpenHourRepository openHourRepository;
+    private final RecipientMapper recipientMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // serial: child queries run one after another on the caller's connection
+    @Value("${recipient.hydration.mode:serial}")
+    private String mode;
+
+    @Value("${recipient.hydration.concurrent-min-recipients:50}")
+    private int concurrentMinRecipients;
+
+    @Value("${recipient.hydration.max-concurrent-queries:4}")
+    private int maxConcurrentQueries;
+
+    // Bounds the extra connections taken from the pool; keep it well below the pool size
+    private Semaphore querySlots;
+
+    @PostConstruct
+    void init() {
+        querySlots = new Semaphore(maxConcurrentQueries);
+    }
+
+    public List<RecipientDTO> toDTOList(List<Recipient> recipients) {
+        if (recipients.isEmpty()) {
+            return List.of();
+        }
+
+        RecipientChildren children = loadChildren(recipients.stream().map(Recipient::getId).toList());
+
+        return recipients.stream()
+                .map(recipient -> recipientMapper.toDTO(recipient, children))
+                .toList();
+    }
+
+    /**
+     * Loads the child rows of the given recipients, one query per child table. In concurrent mode the
+     * queries run on virtual threads with their own connections (see {@link #useConcurrentQueries}),
+     * at most {@code recipient.hydration.max-concurrent-queries} at a time across all requests.
+     */
+    public RecipientChildren loadChildren(Collection<Long> recipientIds) {
+        List<Supplier<List<Object[]>>> queries = List.of(
+                () -> contactRepository.findByRecipientIds(recipientIds),
+                () -> acceptedTypeRepository.findByRecipientIds(recipientIds),
+                () -> capabilityRepository.findByRecipientIds(recipientIds),
+                () -> storageCapabilityRepository.findByRecipientIds(recipientIds),
+                () -> openHourRepository.findByRecipientIds(recipientIds));
+
+        List<List<Object[]>> rows = useConcurrentQueries(recipientIds)
+                ? runConcurrently(queries)
+                : queries.stream().map(Supplier::get).toList();
+
+        RecipientChildren children = new RecipientChildren();
+
+        for (Object[] row : rows.get(0)) {
+            children.addContact((Long) row[0],
+                    recipientMapper.toContact((String) row[1], (String) row[2], (String) row[3]));
+        }
+
+        for (Object[] row : rows.get(1)) {
+            children.addAcceptedType((Long) row[0],
+                    recipientMapper.toAcceptedTypes((String) row[1], (String) row[2], (Integer) row[3]));
+        }
+
+        for (Object[] row : rows.get(2)) {
+            children.addSpecialCapability((Long) row[0], (String) row[1]);
+        }
+
+        for (Object[] row : rows.get(3)) {
+            children.addStorageCapability((Long) row[0], (String) row[1]);
+        }
+
+        for (Object[] row : rows.get(4)) {
+            children.addOpenHour((Long) row[0],
+                    recipientMapper.dayKey((OpenHour.DayOfWeek) row[1]),
+                    recipientMapper.timeRange((Time) row[2], (Time) row[3]));
+        }
+
+        log.debug("Hydrated child rows for {} recipients", recipientIds.size());
+        return children;
+    }
+
+    /**
+     * Only read-only or non-transactional callers fan out: the other connections would not
+     * see rows written by the caller's uncommitted transaction (e.g. card refresh on save).
+     */
+    private boolean useConcurrentQueries(Collection<Long> recipientIds) {
+        return MODE_CONCURRENT.equals(mode)
+                && recipientIds.size() >= concurrentMinRecipients
+                && (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    /**
+     * The first query, and any query that finds no free slot, runs on the caller's own connection
+     * while the others are in flight, so a saturated limit degrades to the serial path instead of waiting.
+     */
+    private List<List<Object[]>> runConcurrently(List<Supplier<List<Object[]>>> queries) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Future<List<Object[]>>> futures = new ArrayList<>(Collections.nCopies(queries.size(), null));
+        for (int i = 1; i < queries.size(); i++) {
+            if (!querySlots.tryAcquire()) break;
+
+            Supplier<List<Object[]>> query = queries.get(i);
+            futures.set(i, executor.submit(() -> {
+                try {
+                    return readOnly.execute(status -> query.get());
+                } finally {
+                    querySlots.release();
+                }
+            }));
+        }
+
+        List<List<Object[]>> rows = new ArrayList<>(Collections.nCopies(queries.size(), null));
+        for (int i = 0; i < queries.size(); i++) {
+            if (futures.get(i) == null) {
+                rows.set(i, queries.get(i).get());
+            }
+        }
+
+        for (int i = 0; i < queries.size(); i++) {
+            Future<List<Object[]>> future = futures.get(i);
+            if (future == null) continue;
+            try {
+                rows.set(i, future.get());
+            } catch (InterruptedException e) {
+                futures.forEach(f -> { if (f != null) f.cancel(true); });
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading recipient children", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+                throw new IllegalStateException("Failed to load recipient children", e.getCause());
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void destroy() {
+        executor.close();
+    }
+}
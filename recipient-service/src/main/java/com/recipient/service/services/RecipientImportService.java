@@ -0,0 +1,302 @@
+package com.recipient.service.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipient.service.entities.CapabilityCode;
+import com.recipient.service.entities.OpenHour;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.models.ImportReportDTO;
+import com.recipient.service.models.RecipientChangeEvent;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.utils.OpenHourIntervals;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Streams an NDJSON file of {@link RecipientDTO}s into the database.
+ * Lines are parsed and validated one at a time and written in chunks, each chunk in its own
+ * transaction with JDBC batch inserts. Recipient ids are pre-allocated from the identity
+ * sequence so child rows can be batched too, which Hibernate cannot do for IDENTITY ids.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_RECIPIENT = """
+INSERT INTO recipients (id, name, address, description, latitude, longitude, location, status, timezone, created_at,
+                        storage_mask, special_capability_mask, version)
+VALUES (?, ?, ?, ?, ?, ?, ST_SetSRID(ST_MakePoint(?, ?), 4326), ?, ?, ?, ?, ?, 0)
+""";
+    private static final String INSERT_CONTACT =
+            "INSERT INTO contacts (name, email, phone, recipient_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ACCEPTED_TYPE =
+            "INSERT INTO accepted_types (type, min_quantity, unit, recipient_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_SPECIAL_CAPABILITY =
+            "INSERT INTO capabilities (special_capability, recipient_id) VALUES (?, ?)";
+    private static final String INSERT_STORAGE_CAPABILITY =
+            "INSERT INTO storage_capabilities (storage_type, recipient_id) VALUES (?, ?)";
+    private static final String INSERT_OPEN_HOUR =
+            "INSERT INTO open_hours (day_of_week, open_time, close_time, recipient_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_OPEN_HOUR_INTERVAL =
+            "INSERT INTO open_hour_intervals (start_minute, end_minute, recipient_id) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final RecipientIndexService recipientIndexService;
+    private final CapabilityDictionary capabilityDictionary;
+    private final RecipientCardService recipientCardService;
+    private final RecipientTimezoneService recipientTimezoneService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${recipient.import.chunk-size:500}")
+    private int chunkSize;
+
+    public ImportReportDTO importNdjson(InputStream body) throws IOException {
+        ImportReportDTO report = new ImportReportDTO();
+        List<ParsedRecipient> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                RecipientDTO dto;
+                try {
+                    dto = objectMapper.readValue(line, RecipientDTO.class);
+                } catch (JsonProcessingException e) {
+                    addError(report, lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                // A literal null parses without error; arrays and scalars already fail above
+                if (dto == null) {
+                    addError(report, lineNumber, null, "Expected a JSON object");
+                    continue;
+                }
+
+                try {
+                    chunk.add(validate(lineNumber, dto));
+                } catch (IllegalArgumentException e) {
+                    addError(report, lineNumber, dto.getName(), e.getMessage());
+                    continue;
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+
+        log.info("Recipient import finished: {} imported, {} failed", report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private ParsedRecipient validate(long lineNumber, RecipientDTO dto) {
+        if (dto.getName() == null || dto.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+
+        RecipientDTO.Location location = dto.getLocation();
+        if (location == null
+                || location.getLatitude() < -90 || location.getLatitude() > 90
+                || location.getLongitude() < -180 || location.getLongitude() > 180) {
+            throw new IllegalArgumentException("a valid location is required");
+        }
+
+        Recipient.RecipientStatus status;
+        try {
+            status = Recipient.RecipientStatus.valueOf(String.valueOf(dto.getStatus()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid status: " + dto.getStatus());
+        }
+
+        String timezone = recipientTimezoneService.normalize(dto.getTimezone());
+        if (timezone == null) {
+            throw new IllegalArgumentException("invalid timezone: " + dto.getTimezone());
+        }
+        dto.setTimezone(timezone);
+
+        List<Object[]> openHours = new ArrayList<>();
+        if (dto.getOpenHours() != null) {
+            for (Map.Entry<String, List<String>> entry : dto.getOpenHours().entrySet()) {
+                OpenHour.DayOfWeek day;
+                try {
+                    day = OpenHour.DayOfWeek.valueOf(entry.getKey());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("invalid open_hours day: " + entry.getKey());
+                }
+                if (entry.getValue() == null) {
+                    throw new IllegalArgumentException("invalid open_hours for day: " + entry.getKey());
+                }
+                for (String range : entry.getValue()) {
+                    String[] parts = range != null ? range.split("-") : new String[0];
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("invalid open_hours range: " + range);
+                    }
+                    try {
+                        openHours.add(new Object[]{day,
+                                Time.valueOf(parts[0].trim() + ":00"),
+                                Time.valueOf(parts[1].trim() + ":00")});
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("invalid open_hours range: " + range);
+                    }
+                }
+            }
+        }
+
+        return new ParsedRecipient(lineNumber, dto, status, openHours);
+    }
+
+    private void writeChunk(List<ParsedRecipient> chunk, ImportReportDTO report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+        } catch (Exception e) {
+            log.error("Failed to import chunk of {} recipients starting at line {}", chunk.size(), chunk.get(0).lineNumber, e);
+            for (ParsedRecipient parsed : chunk) {
+                addError(report, parsed.lineNumber, parsed.dto.getName(), "Chunk insert failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        report.setImported(report.getImported() + chunk.size());
+
+        Map<Long, RecipientDTO> imported = new HashMap<>();
+        for (ParsedRecipient parsed : chunk) {
+            imported.put(parsed.id, parsed.dto);
+        }
+        recipientIndexService.onRecipientsImported(imported);
+
+        String occurredAt = Instant.now().toString();
+        for (ParsedRecipient parsed : chunk) {
+            applicationEventPublisher.publishEvent(new RecipientChangeEvent(parsed.id, 0L,
+                    RecipientChangeEvent.ChangeType.UPSERTED, parsed.status.name(),
+                    parsed.dto.getLocation().getLatitude(), parsed.dto.getLocation().getLongitude(), occurredAt));
+        }
+    }
+
+    private void insertChunk(List<ParsedRecipient> chunk) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('recipients', 'id')) FROM generate_series(1, ?)",
+                Long.class, chunk.size());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> recipients = new ArrayList<>(chunk.size());
+        List<Object[]> contacts = new ArrayList<>();
+        List<Object[]> acceptedTypes = new ArrayList<>();
+        List<Object[]> specialCapabilities = new ArrayList<>();
+        List<Object[]> storageCapabilities = new ArrayList<>();
+        List<Object[]> openHours = new ArrayList<>();
+        List<Object[]> intervals = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRecipient parsed = chunk.get(i);
+            RecipientDTO dto = parsed.dto;
+            Long id = ids.get(i);
+            parsed.id = id;
+
+            double latitude = dto.getLocation().getLatitude();
+            double longitude = dto.getLocation().getLongitude();
+            recipients.add(new Object[]{id, dto.getName(), dto.getAddress(), dto.getDescription(),
+                    BigDecimal.valueOf(latitude), BigDecimal.valueOf(longitude), longitude, latitude,
+                    parsed.status.name(), dto.getTimezone(), now,
+                    capabilityDictionary.maskOf(CapabilityCode.Kind.STORAGE, dto.getStorageCapabilities()),
+                    capabilityDictionary.maskOf(CapabilityCode.Kind.SPECIAL_CAPABILITY, dto.getSpecialCapabilities())});
+
+            if (dto.getContact() != null) {
+                RecipientDTO.Contact contact = dto.getContact();
+                contacts.add(new Object[]{contact.getName(), contact.getEmail(), contact.getPhone(), id});
+            }
+            if (dto.getAcceptedTypes() != null) {
+                for (RecipientDTO.AcceptedTypes acceptedType : dto.getAcceptedTypes()) {
+                    acceptedTypes.add(new Object[]{acceptedType.getType(), acceptedType.getMinQuantity(), acceptedType.getUnit(), id});
+                }
+            }
+            if (dto.getSpecialCapabilities() != null) {
+                for (String capability : dto.getSpecialCapabilities()) {
+                    specialCapabilities.add(new Object[]{capability, id});
+                }
+            }
+            if (dto.getStorageCapabilities() != null) {
+                for (String storageType : dto.getStorageCapabilities()) {
+                    storageCapabilities.add(new Object[]{storageType, id});
+                }
+            }
+
+            List<int[]> ranges = new ArrayList<>();
+            for (Object[] openHour : parsed.openHours) {
+                OpenHour.DayOfWeek day = (OpenHour.DayOfWeek) openHour[0];
+                Time openTime = (Time) openHour[1];
+                Time closeTime = (Time) openHour[2];
+                openHours.add(new Object[]{day.name(), openTime, closeTime, id});
+
+                int[] range = OpenHourIntervals.toRange(day, openTime.toLocalTime(), closeTime.toLocalTime());
+                if (range != null) {
+                    ranges.add(range);
+                }
+            }
+            for (int[] range : OpenHourIntervals.merge(ranges)) {
+                intervals.add(new Object[]{range[0], range[1], id});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RECIPIENT, recipients);
+        jdbcTemplate.batchUpdate(INSERT_CONTACT, contacts);
+        jdbcTemplate.batchUpdate(INSERT_ACCEPTED_TYPE, acceptedTypes);
+        jdbcTemplate.batchUpdate(INSERT_SPECIAL_CAPABILITY, specialCapabilities);
+        jdbcTemplate.batchUpdate(INSERT_STORAGE_CAPABILITY, storageCapabilities);
+        jdbcTemplate.batchUpdate(INSERT_OPEN_HOUR, openHours);
+        jdbcTemplate.batchUpdate(INSERT_OPEN_HOUR_INTERVAL, intervals);
+
+        recipientCardService.refreshCards(ids);
+    }
+
+    private void addError(ImportReportDTO report, long lineNumber, String name, String error) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ImportReportDTO.RowError(lineNumber, name, error));
+        }
+    }
+
+    private static class ParsedRecipient {
+        private final long lineNumber;
+        private final RecipientDTO dto;
+        private final Recipient.RecipientStatus status;
+        // {OpenHour.DayOfWeek, Time open, Time close}
+        private final List<Object[]> openHours;
+        private Long id;
+
+        private ParsedRecipient(long lineNumber, RecipientDTO dto, Recipient.RecipientStatus status, List<Object[]> openHours) {
+            this.lineNumber = lineNumber;
+            this.dto = dto;
+            this.status = status;
+            this.openHours = openHours;
+        }
+    }
+}
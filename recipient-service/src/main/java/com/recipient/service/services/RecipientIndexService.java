@@ -0,0 +1,399 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.OpenHour;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.index.IndexedRecipient;
+import com.recipient.service.index.MatchCandidateCache;
+import com.recipient.service.index.OpenHoursRegistry;
+import com.recipient.service.index.RecipientSnapshotFile;
+import com.recipient.service.index.RecipientSpatialIndex;
+import com.recipient.service.index.WeeklySchedule;
+import com.recipient.service.models.DonationDTO;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.AcceptedTypeRepository;
+import com.recipient.service.repositories.OpenHourRepository;
+import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.repositories.StorageCapabilityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientIndexService {
+
+    private final RecipientSpatialIndex recipientSpatialIndex;
+    private final RecipientRepository recipientRepository;
+    private final AcceptedTypeRepository acceptedTypeRepository;
+    private final StorageCapabilityRepository storageCapabilityRepository;
+    private final OpenHourRepository openHourRepository;
+    private final OpenHoursRegistry openHoursRegistry;
+    private final MatchCandidateCache matchCandidateCache;
+    private final RecipientSnapshotService recipientSnapshotService;
+    private final TaskScheduler taskScheduler;
+
+    private static final int CATCH_UP_CHUNK_SIZE = 1000;
+
+    @Value("${recipient.index.enabled:true}")
+    private boolean indexEnabled;
+
+    // Rows created shortly before the snapshot may have committed after it was taken
+    @Value("${recipient.snapshot.catch-up-margin-seconds:300}")
+    private long catchUpMarginSeconds;
+
+    @Value("${recipient.datasource.replica.enabled:false}")
+    private boolean replicasEnabled;
+
+    // How long a replica can trail a commit and still serve reads: max lag plus one probe interval
+    @Value("#{${recipient.datasource.replica.max-lag-seconds:5} * 1000 + ${recipient.datasource.replica.lag-check-interval-ms:5000}}")
+    private long replicaStaleMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        if (!indexEnabled) {
+            log.info("Recipient index disabled, matching will use SQL only");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        Optional<RecipientSnapshotFile.Contents> snapshot = recipientSnapshotService.readSnapshot();
+        if (snapshot.isPresent()) {
+            warmStart(snapshot.get());
+            log.info("Warm started recipient index with {} entries in {} ms",
+                    recipientSpatialIndex.size(), System.currentTimeMillis() - start);
+            return;
+        }
+
+        Map<Long, Map<String, Integer>> typesByRecipient = new HashMap<>();
+        for (Object[] row : acceptedTypeRepository.findActiveRecipientTypes()) {
+            if (row[1] == null || row[2] == null) continue;
+            typesByRecipient.computeIfAbsent((Long) row[0], k -> new HashMap<>())
+                    .merge((String) row[1], (Integer) row[2], Math::min);
+        }
+
+        Map<Long, Set<String>> storageByRecipient = new HashMap<>();
+        for (Object[] row : storageCapabilityRepository.findActiveRecipientStorage()) {
+            if (row[1] == null) continue;
+            storageByRecipient.computeIfAbsent((Long) row[0], k -> new HashSet<>()).add((String) row[1]);
+        }
+
+        List<IndexedRecipient> entries = new ArrayList<>();
+        for (Object[] row : recipientRepository.findActiveLocations()) {
+            Long id = (Long) row[0];
+            if (row[1] == null || row[2] == null) continue;
+
+            entries.add(new IndexedRecipient(
+                    id,
+                    ((BigDecimal) row[1]).doubleValue(),
+                    ((BigDecimal) row[2]).doubleValue(),
+                    Map.copyOf(typesByRecipient.getOrDefault(id, Map.of())),
+                    Set.copyOf(storageByRecipient.getOrDefault(id, Set.of()))
+            ));
+        }
+
+        Map<Long, WeeklySchedule.Builder> scheduleBuilders = new HashMap<>();
+        Set<Long> invalidTimezones = new HashSet<>();
+        for (Object[] row : openHourRepository.findActiveOpenHours()) {
+            Long id = (Long) row[0];
+            if (invalidTimezones.contains(id)) continue;
+
+            WeeklySchedule.Builder builder = scheduleBuilders.get(id);
+            if (builder == null) {
+                builder = newScheduleBuilder(id, (String) row[1]);
+                if (builder == null) {
+                    invalidTimezones.add(id);
+                    continue;
+                }
+                scheduleBuilders.put(id, builder);
+            }
+            builder.open((OpenHour.DayOfWeek) row[2], toLocalTime((Time) row[3]), toLocalTime((Time) row[4]));
+        }
+
+        for (IndexedRecipient entry : entries) {
+            WeeklySchedule.Builder builder = scheduleBuilders.get(entry.getId());
+            openHoursRegistry.put(entry.getId(), builder != null ? builder.build() : WeeklySchedule.closed());
+        }
+
+        recipientSpatialIndex.load(entries);
+        log.info("Built recipient index with {} entries in {} ms", entries.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Loads the index from a snapshot, dropping recipients that are no longer active and
+     * catching up on recipients created after the snapshot's watermark.
+     */
+    private void warmStart(RecipientSnapshotFile.Contents snapshot) {
+        Set<Long> activeIds = new HashSet<>(recipientRepository.findActiveIds());
+
+        Map<Long, IndexedRecipient> entries = new LinkedHashMap<>();
+        for (IndexedRecipient entry : snapshot.getRecipients()) {
+            if (activeIds.contains(entry.getId())) {
+                entries.put(entry.getId(), entry);
+            }
+        }
+        int dropped = snapshot.getRecipients().size() - entries.size();
+
+        snapshot.getSchedules().forEach((id, schedule) -> {
+            if (entries.containsKey(id)) {
+                openHoursRegistry.put(id, schedule);
+            }
+        });
+
+        LocalDateTime createdSince = LocalDateTime.ofInstant(
+                snapshot.getCreatedAt().minusSeconds(catchUpMarginSeconds), ZoneId.systemDefault());
+        List<Object[]> created = recipientRepository.findActiveLocationsCreatedSince(createdSince);
+        for (int from = 0; from < created.size(); from += CATCH_UP_CHUNK_SIZE) {
+            catchUp(created.subList(from, Math.min(created.size(), from + CATCH_UP_CHUNK_SIZE)), entries);
+        }
+
+        recipientSpatialIndex.load(entries.values());
+        log.info("Recipient snapshot caught up since {}: {} recipients reloaded, {} dropped",
+                createdSince, created.size(), dropped);
+    }
+
+    private void catchUp(List<Object[]> locations, Map<Long, IndexedRecipient> entries) {
+        List<Long> ids = new ArrayList<>(locations.size());
+        for (Object[] row : locations) {
+            ids.add((Long) row[0]);
+        }
+
+        Map<Long, Map<String, Integer>> typesByRecipient = new HashMap<>();
+        for (Object[] row : acceptedTypeRepository.findByRecipientIds(ids)) {
+            if (row[1] == null || row[3] == null) continue;
+            typesByRecipient.computeIfAbsent((Long) row[0], k -> new HashMap<>())
+                    .merge((String) row[1], (Integer) row[3], Math::min);
+        }
+
+        Map<Long, Set<String>> storageByRecipient = new HashMap<>();
+        for (Object[] row : storageCapabilityRepository.findByRecipientIds(ids)) {
+            if (row[1] == null) continue;
+            storageByRecipient.computeIfAbsent((Long) row[0], k -> new HashSet<>()).add((String) row[1]);
+        }
+
+        Map<Long, WeeklySchedule.Builder> scheduleBuilders = new HashMap<>();
+        for (Object[] row : locations) {
+            WeeklySchedule.Builder builder = newScheduleBuilder((Long) row[0], (String) row[3]);
+            if (builder != null) {
+                scheduleBuilders.put((Long) row[0], builder);
+            }
+        }
+        for (Object[] row : openHourRepository.findByRecipientIds(ids)) {
+            WeeklySchedule.Builder builder = scheduleBuilders.get((Long) row[0]);
+            if (builder != null) {
+                builder.open((OpenHour.DayOfWeek) row[1], toLocalTime((Time) row[2]), toLocalTime((Time) row[3]));
+            }
+        }
+
+        for (Object[] row : locations) {
+            Long id = (Long) row[0];
+            if (row[1] == null || row[2] == null) continue;
+
+            entries.put(id, new IndexedRecipient(
+                    id,
+                    ((BigDecimal) row[1]).doubleValue(),
+                    ((BigDecimal) row[2]).doubleValue(),
+                    Map.copyOf(typesByRecipient.getOrDefault(id, Map.of())),
+                    Set.copyOf(storageByRecipient.getOrDefault(id, Set.of()))
+            ));
+            WeeklySchedule.Builder builder = scheduleBuilders.get(id);
+            openHoursRegistry.put(id, builder != null ? builder.build() : WeeklySchedule.closed());
+        }
+    }
+
+    /**
+     * Applies a saved recipient to the index, schedules and match cache. Call only after the write has
+     * committed, otherwise matches can return a recipient that is rolled back later.
+     */
+    public void onRecipientSaved(Long recipientId, RecipientDTO recipientDTO) {
+        invalidateCandidates(recipientId, recipientDTO);
+        applyToIndex(recipientId, recipientDTO);
+        invalidateCandidatesAfterReplicaLag(() -> invalidateCandidates(recipientId, recipientDTO));
+    }
+
+    private void invalidateCandidates(Long recipientId, RecipientDTO recipientDTO) {
+        matchCandidateCache.invalidateRecipient(recipientId);
+        if (recipientDTO.getLocation() != null) {
+            matchCandidateCache.invalidateNear(recipientDTO.getLocation().getLatitude(), recipientDTO.getLocation().getLongitude());
+        }
+    }
+
+    /**
+     * A cache miss loaded from a replica that has not replayed the commit yet stores the old candidates
+     * again, so with replicas the invalidation is repeated once no replica in rotation can be that far behind.
+     */
+    private void invalidateCandidatesAfterReplicaLag(Runnable invalidation) {
+        if (replicasEnabled && matchCandidateCache.isEnabled()) {
+            taskScheduler.schedule(invalidation, Instant.now().plusMillis(replicaStaleMillis));
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #onRecipientSaved}: clears the match cache once instead of
+     * scanning it for every imported recipient.
+     */
+    public void onRecipientsImported(Map<Long, RecipientDTO> recipients) {
+        matchCandidateCache.invalidateAll();
+        recipients.forEach(this::applyToIndex);
+    }
+
+    private void applyToIndex(Long recipientId, RecipientDTO recipientDTO) {
+        openHoursRegistry.put(recipientId, compileSchedule(recipientId, recipientDTO));
+
+        if (!indexEnabled) return;
+
+        if (!Recipient.RecipientStatus.active.name().equals(recipientDTO.getStatus())
+                || recipientDTO.getLocation() == null) {
+            recipientSpatialIndex.remove(recipientId);
+            return;
+        }
+
+        Map<String, Integer> minQuantityByType = new HashMap<>();
+        if (recipientDTO.getAcceptedTypes() != null) {
+            for (RecipientDTO.AcceptedTypes acceptedType : recipientDTO.getAcceptedTypes()) {
+                if (acceptedType.getType() == null) continue;
+                minQuantityByType.merge(acceptedType.getType(), acceptedType.getMinQuantity(), Math::min);
+            }
+        }
+
+        Set<String> storageTypes = new HashSet<>();
+        if (recipientDTO.getStorageCapabilities() != null) {
+            recipientDTO.getStorageCapabilities().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(storageTypes::add);
+        }
+
+        recipientSpatialIndex.upsert(new IndexedRecipient(
+                recipientId,
+                recipientDTO.getLocation().getLatitude(),
+                recipientDTO.getLocation().getLongitude(),
+                Map.copyOf(minQuantityByType),
+                Set.copyOf(storageTypes)
+        ));
+    }
+
+    /**
+     * Drops a deleted recipient; like {@link #onRecipientSaved}, call only after the delete has committed.
+     */
+    public void onRecipientDeleted(Long recipientId) {
+        openHoursRegistry.remove(recipientId);
+        matchCandidateCache.invalidateRecipient(recipientId);
+        invalidateCandidatesAfterReplicaLag(() -> matchCandidateCache.invalidateRecipient(recipientId));
+
+        if (!indexEnabled) return;
+        recipientSpatialIndex.remove(recipientId);
+    }
+
+    public boolean isIndexReady() {
+        return indexEnabled && recipientSpatialIndex.isReady();
+    }
+
+    public List<Long> findCandidateIds(DonationDTO donationDTO, double radiusInKm) {
+        DonationDTO.Location location = donationDTO.getDonor().getLocation();
+        DonationDTO.Donation donation = donationDTO.getDonation();
+
+        return findCandidateIds(location.getLatitude(), location.getLongitude(), radiusInKm,
+                donation.getType(), donation.getQuantity(), donation.getStorageCapability());
+    }
+
+    public List<Long> findCandidateIds(double latitude, double longitude, double radiusInKm,
+                                       String type, int quantity, String storageType) {
+        return recipientSpatialIndex.findCandidateIds(latitude, longitude, radiusInKm, type, quantity, storageType);
+    }
+
+    public WeeklySchedule scheduleFor(Recipient recipient) {
+        return openHoursRegistry.get(recipient.getId(), id -> {
+            WeeklySchedule.Builder builder = newScheduleBuilder(id, recipient.getTimezone());
+            if (builder == null) return WeeklySchedule.closed();
+
+            for (OpenHour hour : recipient.getOpenHours()) {
+                builder.open(hour.getDayOfWeek(), toLocalTime(hour.getOpenTime()), toLocalTime(hour.getCloseTime()));
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * Compiles missing schedules for a batch of recipients with a single open_hours query,
+     * so {@link #scheduleFor(Recipient)} does not fall back to lazy loading per recipient.
+     */
+    public void preloadSchedules(List<Recipient> recipients) {
+        Map<Long, Recipient> missing = new HashMap<>();
+        for (Recipient recipient : recipients) {
+            if (!openHoursRegistry.contains(recipient.getId())) {
+                missing.put(recipient.getId(), recipient);
+            }
+        }
+        if (missing.isEmpty()) return;
+
+        Map<Long, WeeklySchedule.Builder> builders = new HashMap<>();
+        for (Recipient recipient : missing.values()) {
+            WeeklySchedule.Builder builder = newScheduleBuilder(recipient.getId(), recipient.getTimezone());
+            if (builder != null) {
+                builders.put(recipient.getId(), builder);
+            }
+        }
+
+        for (Object[] row : openHourRepository.findByRecipientIds(missing.keySet())) {
+            WeeklySchedule.Builder builder = builders.get((Long) row[0]);
+            if (builder != null) {
+                builder.open((OpenHour.DayOfWeek) row[1], toLocalTime((Time) row[2]), toLocalTime((Time) row[3]));
+            }
+        }
+
+        for (Long id : missing.keySet()) {
+            WeeklySchedule.Builder builder = builders.get(id);
+            openHoursRegistry.put(id, builder != null ? builder.build() : WeeklySchedule.closed());
+        }
+    }
+
+    private WeeklySchedule compileSchedule(Long recipientId, RecipientDTO recipientDTO) {
+        WeeklySchedule.Builder builder = newScheduleBuilder(recipientId, recipientDTO.getTimezone());
+        if (builder == null || recipientDTO.getOpenHours() == null) return WeeklySchedule.closed();
+
+        for (Map.Entry<String, List<String>> entry : recipientDTO.getOpenHours().entrySet()) {
+            for (String range : entry.getValue()) {
+                String[] parts = range.split("-");
+                if (parts.length != 2) continue;
+
+                builder.open(OpenHour.DayOfWeek.valueOf(entry.getKey()),
+                        Time.valueOf(parts[0].trim() + ":00").toLocalTime(),
+                        Time.valueOf(parts[1].trim() + ":00").toLocalTime());
+            }
+        }
+        return builder.build();
+    }
+
+    private WeeklySchedule.Builder newScheduleBuilder(Long recipientId, String timezone) {
+        if (timezone == null) {
+            log.warn("Recipient {} has no timezone, treating it as closed", recipientId);
+            return null;
+        }
+        try {
+            return WeeklySchedule.builder(timezone);
+        } catch (DateTimeException e) {
+            log.warn("Recipient {} has invalid timezone '{}', treating it as closed", recipientId, timezone);
+            return null;
+        }
+    }
+
+    private static LocalTime toLocalTime(Time time) {
+        return time != null ? time.toLocalTime() : null;
+    }
+}
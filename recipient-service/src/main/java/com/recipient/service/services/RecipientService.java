@@ -1,17 +1,23 @@
 package com.recipient.service.services;
 
 import com.recipient.service.entities.*;
+import com.recipient.service.models.RecipientChangeEvent;
 import com.recipient.service.models.RecipientDTO;
 import com.recipient.service.repositories.*;
+import com.recipient.service.utils.OpenHourIntervals;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.sql.Time;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -30,10 +36,20 @@ public class RecipientService {
     private final CapabilityRepository capabilityRepository;
     private final StorageCapabilityRepository storageCapabilityRepository;
     private final OpenHourRepository openHourRepository;
-
+    private final OpenHourIntervalRepository openHourIntervalRepository;
+    private final RecipientIndexService recipientIndexService;
+    private final CapabilityDictionary capabilityDictionary;
+    private final RecipientCardService recipientCardService;
+    private final RecipientTimezoneService recipientTimezoneService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Transactional
     public Long saveRecipient(RecipientDTO recipientDTO) {
         log.info("Starting to save recipient: {}", recipientDTO.getName());
 
+        // Rejected before anything is written; the controller answers 400
+        recipientDTO.setTimezone(recipientTimezoneService.normalize(recipientDTO.getTimezone()));
+
         try {
             // Create and save the main recipient entity
             Recipient recipient = createRecipient(recipientDTO);
@@ -46,6 +62,11 @@ public class RecipientService {
             saveSpecialCapabilities(recipient, recipientDTO.getSpecialCapabilities());
             saveStorageCapabilities(recipient, recipientDTO.getStorageCapabilities());
             saveOpenHours(recipient, recipientDTO.getOpenHours());
+            recipientCardService.refreshCards(List.of(recipient.getId()));
+
+            Long recipientId = recipient.getId();
+            afterCommit(() -> recipientIndexService.onRecipientSaved(recipientId, recipientDTO));
+            applicationEventPublisher.publishEvent(upsertedEvent(recipient));
 
             log.info("Successfully saved recipient and all related data. Recipient ID: {}", recipient.getId());
             return recipient.getId();
@@ -56,6 +77,37 @@ public class RecipientService {
         }
     }
 
+    /**
+     * Runs an in-memory index or cache update once the transaction has committed: matches must not see a
+     * write that can still roll back, and a cache reload must not pick up the rows from before it.
+     */
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static RecipientChangeEvent upsertedEvent(Recipient recipient) {
+        return new RecipientChangeEvent(
+                recipient.getId(),
+                recipient.getVersion(),
+                RecipientChangeEvent.ChangeType.UPSERTED,
+                recipient.getStatus().name(),
+                recipient.getLatitude() != null ? recipient.getLatitude().doubleValue() : null,
+                recipient.getLongitude() != null ? recipient.getLongitude().doubleValue() : null,
+                Instant.now().toString());
+    }
+
+    private static RecipientChangeEvent deletedEvent(Recipient recipient) {
+        // A delete supersedes every version that was ever published for the recipient
+        long version = recipient.getVersion() != null ? recipient.getVersion() + 1 : 1;
+        return new RecipientChangeEvent(recipient.getId(), version, RecipientChangeEvent.ChangeType.DELETED,
+                null, null, null, Instant.now().toString());
+    }
+
     private Recipient createRecipient(RecipientDTO recipientDTO) {
         log.debug("Creating recipient entity from DTO");
 
@@ -76,6 +128,8 @@ public class RecipientService {
                     .location(point)
                     .status(Recipient.RecipientStatus.valueOf(recipientDTO.getStatus()))
                     .timezone(recipientDTO.getTimezone())
+                    .storageMask(capabilityDictionary.maskOf(CapabilityCode.Kind.STORAGE, recipientDTO.getStorageCapabilities()))
+                    .specialCapabilityMask(capabilityDictionary.maskOf(CapabilityCode.Kind.SPECIAL_CAPABILITY, recipientDTO.getSpecialCapabilities()))
                     .createdAt(LocalDateTime.now())
                     .build();
 
@@ -196,15 +250,21 @@ public class RecipientService {
         try {
             log.debug("Saving open hours for recipient: {}", recipient.getId());
 
+            List<OpenHour> savedHours = new ArrayList<>();
             for (Map.Entry<String, List<String>> entry : openHours.entrySet()) {
                 String day = entry.getKey();
                 List<String> hours = entry.getValue();
 
                 for (String range : hours) {
-                    saveOpenHourRange(recipient, day, range);
+                    OpenHour openHour = saveOpenHourRange(recipient, day, range);
+                    if (openHour != null) {
+                        savedHours.add(openHour);
+                    }
                 }
             }
 
+            saveOpenHourIntervals(recipient, savedHours);
+
             log.debug("Successfully saved all open hours for recipient: {}", recipient.getId());
 
         } catch (Exception e) {
@@ -213,13 +273,13 @@ public class RecipientService {
         }
     }
 
-    private void saveOpenHourRange(Recipient recipient, String day, String range) {
+    private OpenHour saveOpenHourRange(Recipient recipient, String day, String range) {
         try {
             String[] parts = range.split("-");
             if (parts.length != 2) {
                 log.warn("Invalid time range format for recipient: {} on day: {}. Range: {}",
                         recipient.getId(), day, range);
-                return;
+                return null;
             }
 
             Time openTime = Time.valueOf(parts[0].trim() + ":00");
@@ -232,7 +292,7 @@ public class RecipientService {
                     .recipient(recipient)
                     .build();
 
-            openHourRepository.save(openHour);
+            return openHourRepository.save(openHour);
 
         } catch (Exception e) {
             log.error("Failed to save open hour range for recipient: {} on day: {}. Range: {}. Error: {}",
@@ -241,15 +301,46 @@ public class RecipientService {
         }
     }
 
+    private void saveOpenHourIntervals(Recipient recipient, List<OpenHour> openHours) {
+        List<int[]> ranges = new ArrayList<>();
+        for (OpenHour openHour : openHours) {
+            int[] range = OpenHourIntervals.toRange(openHour.getDayOfWeek(),
+                    openHour.getOpenTime().toLocalTime(), openHour.getCloseTime().toLocalTime());
+            if (range == null) {
+                log.warn("Skipping open hour interval that closes before it opens for recipient: {}", recipient.getId());
+                continue;
+            }
+            ranges.add(range);
+        }
+
+        List<OpenHourInterval> intervals = OpenHourIntervals.merge(ranges).stream()
+                .map(range -> toInterval(recipient, range))
+                .toList();
+
+        openHourIntervalRepository.saveAll(intervals);
+        log.debug("Saved {} open hour intervals for recipient: {}", intervals.size(), recipient.getId());
+    }
+
+    private OpenHourInterval toInterval(Recipient recipient, int[] range) {
+        return OpenHourInterval.builder()
+                .startMinute(range[0])
+                .endMinute(range[1])
+                .recipient(recipient)
+                .build();
+    }
+
+    @Transactional
     public void deleteRecipientById(String id) {
         log.info("Attempting to delete recipient with ID: {}", id);
 
-        if (!recipientRepository.existsById(id)) {
+        Recipient recipient = recipientRepository.findById(id).orElseThrow(() -> {
             log.warn("Recipient with ID {} not found for deletion", id);
-            throw new EntityNotFoundException("Recipient with id " + id + " not found");
-        }
+            return new EntityNotFoundException("Recipient with id " + id + " not found");
+        });
 
-        recipientRepository.deleteById(id);
+        recipientRepository.delete(recipient);
+        afterCommit(() -> recipientIndexService.onRecipientDeleted(recipient.getId()));
+        applicationEventPublisher.publishEvent(deletedEvent(recipient));
         log.info("Successfully deleted recipient with ID: {}", id);
     }
 }
\ No newline at end of file
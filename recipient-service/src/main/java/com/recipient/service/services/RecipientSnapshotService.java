@@ -0,0 +1,79 @@
+package com.recipient.service.services;
+
+import com.recipient.service.index.IndexedRecipient;
+import com.recipient.service.index.OpenHoursRegistry;
+import com.recipient.service.index.RecipientSnapshotFile;
+import com.recipient.service.index.RecipientSpatialIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists the in-memory matching data to a memory-mapped snapshot so a restart can
+ * serve matching from it instead of reloading every recipient through JPA.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientSnapshotService {
+
+    private final RecipientSpatialIndex recipientSpatialIndex;
+    private final OpenHoursRegistry openHoursRegistry;
+
+    @Value("${recipient.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    @Value("${recipient.snapshot.path:data/recipient-snapshot.bin}")
+    private Path snapshotPath;
+
+    public Optional<RecipientSnapshotFile.Contents> readSnapshot() {
+        if (!snapshotEnabled || !Files.exists(snapshotPath)) return Optional.empty();
+
+        try {
+            long start = System.currentTimeMillis();
+            RecipientSnapshotFile.Contents contents = RecipientSnapshotFile.read(snapshotPath);
+            log.info("Mapped recipient snapshot {} with {} recipients taken at {} in {} ms", snapshotPath,
+                    contents.getRecipients().size(), contents.getCreatedAt(), System.currentTimeMillis() - start);
+            return Optional.of(contents);
+        } catch (IOException | RuntimeException e) {
+            // Any damage falls back to the full build; a bad file must never fail startup
+            log.warn("Ignoring unreadable recipient snapshot {}: {}", snapshotPath, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${recipient.snapshot.interval-ms:600000}",
+            fixedDelayString = "${recipient.snapshot.interval-ms:600000}")
+    public void writeSnapshot() {
+        // Never replace a good snapshot with a partial one while the index is still loading
+        if (!snapshotEnabled || !recipientSpatialIndex.isReady()) return;
+
+        // Taken before reading the index, so anything created afterwards is caught up on the next start
+        Instant createdAt = Instant.now();
+        try {
+            long start = System.currentTimeMillis();
+            List<IndexedRecipient> recipients = recipientSpatialIndex.entries();
+            RecipientSnapshotFile.write(snapshotPath, createdAt, recipients, openHoursRegistry::find);
+            log.info("Wrote recipient snapshot {} with {} recipients in {} ms", snapshotPath,
+                    recipients.size(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.error("Failed to write recipient snapshot {}", snapshotPath, e);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void writeSnapshotOnShutdown() {
+        writeSnapshot();
+    }
+}
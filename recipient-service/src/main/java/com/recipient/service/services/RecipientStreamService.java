@@ -0,0 +1,114 @@
+package com.recipient.service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.models.DonationDTO;
+import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.utils.RecipientChildren;
+import com.recipient.service.utils.RecipientMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes match results as NDJSON while they are read. Rows come from a forward-only cursor,
+ * are hydrated and written one fetch-size chunk at a time, and the persistence context is
+ * cleared after each chunk, so memory stays flat however many recipients match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientStreamService {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final RecipientRepository recipientRepository;
+    private final RecipientHydrationService recipientHydrationService;
+    private final RecipientMapper recipientMapper;
+    private final CapabilityDictionary capabilityDictionary;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${recipient.stream.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Validates the request up front so errors can still be answered with a status code,
+     * then returns the body that streams the matching recipients.
+     */
+    public StreamingResponseBody streamEligibleRecipients(DonationDTO donationDTO, double radiusInKm) {
+        if (DonationService.parsePickupWindow(donationDTO) != null) {
+            throw new IllegalArgumentException("Pickup windows are not supported in streaming mode.");
+        }
+        Instant donationPickupTime = DonationService.parsePickupTime(donationDTO);
+
+        return outputStream -> {
+            long start = System.currentTimeMillis();
+            long written = writeEligibleRecipients(donationDTO, radiusInKm, donationPickupTime, outputStream);
+            log.info("Streamed {} recipients in {} ms", written, System.currentTimeMillis() - start);
+        };
+    }
+
+    private long writeEligibleRecipients(DonationDTO donationDTO, double radiusInKm, Instant donationPickupTime,
+                                         OutputStream outputStream) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        long storageMask = capabilityDictionary.storageMaskOf(donationDTO.getDonation().getStorageCapability());
+        Long written = transactionTemplate.execute(status -> {
+            try (Stream<Recipient> rows = recipientRepository.streamMatchingRecipients(
+                    donationDTO, radiusInKm, storageMask, donationPickupTime, fetchSize)) {
+                long count = 0;
+                List<Recipient> chunk = new ArrayList<>(fetchSize);
+                Iterator<Recipient> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == fetchSize) {
+                        count += writeChunk(chunk, outputStream);
+                    }
+                }
+                count += writeChunk(chunk, outputStream);
+                return count;
+            } catch (IOException e) {
+                // Usually the client went away; rolling back closes the cursor
+                throw new UncheckedIOException(e);
+            }
+        });
+        return written != null ? written : 0;
+    }
+
+    private int writeChunk(List<Recipient> chunk, OutputStream outputStream) throws IOException {
+        if (chunk.isEmpty()) return 0;
+
+        RecipientChildren children = recipientHydrationService.loadChildren(
+                chunk.stream().map(Recipient::getId).toList());
+        for (Recipient recipient : chunk) {
+            outputStream.write(objectMapper.writeValueAsBytes(recipientMapper.toDTO(recipient, children)));
+            outputStream.write(NEWLINE);
+        }
+        outputStream.flush();
+
+        int size = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        return size;
+    }
+}
@@ -0,0 +1,94 @@
+package com.recipient.service.services;
+
+import com.recipient.service.utils.RecipientTimezones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps {@code recipients.timezone} in a form that the open-at SQL predicates and {@link
+ * com.recipient.service.index.WeeklySchedule} evaluate identically: normalized through
+ * {@link RecipientTimezones} and known to Postgres ({@code known_timezones}, filled by schema.sql).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecipientTimezoneService {
+
+    private static final String SELECT_KNOWN = "SELECT name FROM known_timezones";
+    private static final String SELECT_STORED = "SELECT DISTINCT timezone FROM recipients WHERE timezone IS NOT NULL";
+    private static final String UPDATE_TIMEZONE = "UPDATE recipients SET timezone = ? WHERE timezone = ? RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RecipientCardService recipientCardService;
+
+    private volatile Set<String> knownTimezones;
+
+    /**
+     * Normalizes a timezone about to be saved.
+     *
+     * @throws IllegalArgumentException when Java rejects the timezone or Postgres does not know it
+     */
+    public String normalize(String timezone) {
+        String normalized = RecipientTimezones.normalize(timezone);
+        if (normalized != null && !knownTimezones().contains(normalized)) {
+            throw new IllegalArgumentException("invalid timezone: " + timezone + " (unknown to the database)");
+        }
+        return normalized;
+    }
+
+    private Set<String> knownTimezones() {
+        Set<String> known = knownTimezones;
+        if (known == null) {
+            known = Set.copyOf(jdbcTemplate.queryForList(SELECT_KNOWN, String.class));
+            knownTimezones = known;
+        }
+        return known;
+    }
+
+    /**
+     * Rewrites timezones stored before saves were normalized, e.g. {@code UTC+5}, which Postgres would
+     * otherwise read with the opposite sign. Timezones that cannot be normalized or that Postgres does not
+     * know are left alone and logged: both match paths treat their recipients as closed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void normalizeStoredTimezones() {
+        Set<String> unsupported = new HashSet<>();
+        for (String stored : jdbcTemplate.queryForList(SELECT_STORED, String.class)) {
+            String normalized;
+            try {
+                normalized = RecipientTimezones.normalize(stored);
+            } catch (IllegalArgumentException e) {
+                unsupported.add(stored);
+                continue;
+            }
+            if (!knownTimezones().contains(normalized)) {
+                unsupported.add(stored);
+                continue;
+            }
+            if (normalized.equals(stored)) {
+                continue;
+            }
+
+            int updated = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(UPDATE_TIMEZONE, Long.class, normalized, stored);
+                recipientCardService.refreshCards(ids);
+                return ids.size();
+            });
+            log.info("Normalized timezone '{}' to '{}' for {} recipients", stored, normalized, updated);
+        }
+
+        if (!unsupported.isEmpty()) {
+            log.warn("Recipients with timezones {} are treated as closed: Java or Postgres cannot resolve them", unsupported);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.recipient.service.utils;
+
+import com.recipient.service.entities.OpenHour;
+import com.recipient.service.index.WeeklySchedule;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Converts open hours into merged, inclusive minute-of-week ranges (Monday 00:00 = 0),
+ * the representation stored in open_hour_intervals.
+ */
+public final class OpenHourIntervals {
+
+    private OpenHourIntervals() {
+    }
+
+    /**
+     * @return {start, end} minute-of-week, or null when the range closes before it opens
+     */
+    public static int[] toRange(OpenHour.DayOfWeek day, LocalTime openTime, LocalTime closeTime) {
+        if (closeTime.isBefore(openTime)) {
+            return null;
+        }
+        int dayStart = day.ordinal() * WeeklySchedule.MINUTES_PER_DAY;
+        return new int[]{
+                dayStart + openTime.getHour() * 60 + openTime.getMinute(),
+                dayStart + closeTime.getHour() * 60 + closeTime.getMinute()
+        };
+    }
+
+    public static List<int[]> merge(List<int[]> ranges) {
+        List<int[]> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(range -> range[0]));
+
+        List<int[]> merged = new ArrayList<>();
+        int[] current = null;
+        for (int[] range : sorted) {
+            if (current != null && range[0] <= current[1] + 1) {
+                current[1] = Math.max(current[1], range[1]);
+                continue;
+            }
+            if (current != null) {
+                merged.add(current);
+            }
+            current = new int[]{range[0], range[1]};
+        }
+        if (current != null) {
+            merged.add(current);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,42 @@
+package com.recipient.service.utils;
+
+import com.recipient.service.models.RecipientDTO;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Child rows of a batch of recipients, already in DTO form and grouped by recipient id.
+ */
+@Getter
+public class RecipientChildren {
+
+    private final Map<Long, RecipientDTO.Contact> contacts = new HashMap<>();
+    private final Map<Long, List<RecipientDTO.AcceptedTypes>> acceptedTypes = new HashMap<>();
+    private final Map<Long, List<String>> specialCapabilities = new HashMap<>();
+    private final Map<Long, List<String>> storageCapabilities = new HashMap<>();
+    private final Map<Long, Map<String, List<String>>> openHours = new HashMap<>();
+
+    public void addContact(Long recipientId, RecipientDTO.Contact contact) {
+        // Only the first contact is exposed, see RecipientMapper
+        contacts.putIfAbsent(recipientId, contact);
+    }
+
+    public void addAcceptedType(Long recipientId, RecipientDTO.AcceptedTypes acceptedType) {
+        acceptedTypes.computeIfAbsent(recipientId, k -> new ArrayList<>()).add(acceptedType);
+    }
+
+    public void addSpecialCapability(Long recipientId, String capability) {
+        specialCapabilities.computeIfAbsent(recipientId, k -> new ArrayList<>()).add(capability);
+    }
+
+    public void addStorageCapability(Long recipientId, String storageType) {
+        storageCapabilities.computeIfAbsent(recipientId, k -> new ArrayList<>()).add(storageType);
+    }
+
+    public void addOpenHour(Long recipientId, String day, String timeRange) {
+        openHours.computeIfAbsent(recipientId, k -> new HashMap<>())
+                .computeIfAbsent(day, k -> new ArrayList<>())
+                .add(timeRange);
+    }
+}
@@ -4,6 +4,7 @@ import com.recipient.service.entities.*;
 import com.recipient.service.models.RecipientDTO;
 import org.springframework.stereotype.Component;
 
+import java.sql.Time;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -15,42 +16,18 @@ public class RecipientMapper {
     public RecipientDTO toDTO(Recipient recipient) {
         if (recipient == null) return null;
 
-        RecipientDTO dto = new RecipientDTO();
-        dto.setId(recipient.getId());
-        dto.setName(recipient.getName());
-        dto.setAddress(recipient.getAddress());
-        dto.setDescription(recipient.getDescription());
-        dto.setStatus(recipient.getStatus().name());
-        dto.setTimezone(recipient.getTimezone());
-
-        // Map location
-        if (recipient.getLatitude() != null && recipient.getLongitude() != null) {
-            RecipientDTO.Location location = new RecipientDTO.Location();
-            location.setLatitude(recipient.getLatitude().doubleValue());
-            location.setLongitude(recipient.getLongitude().doubleValue());
-            dto.setLocation(location);
-        }
+        RecipientDTO dto = toBaseDTO(recipient);
 
         // Map contact (first one only; adjust if you support multiple)
         if (!recipient.getContacts().isEmpty()) {
             Contact entityContact = recipient.getContacts().get(0);
-            RecipientDTO.Contact contact = new RecipientDTO.Contact();
-            contact.setName(entityContact.getName());
-            contact.setEmail(entityContact.getEmail());
-            contact.setPhone(entityContact.getPhone());
-            dto.setContact(contact);
+            dto.setContact(toContact(entityContact.getName(), entityContact.getEmail(), entityContact.getPhone()));
         }
 
         // Map accepted types
         dto.setAcceptedTypes(
                 recipient.getAcceptedTypes().stream()
-                        .map(accepted -> {
-                            RecipientDTO.AcceptedTypes at = new RecipientDTO.AcceptedTypes();
-                            at.setType(accepted.getType());
-                            at.setUnit(accepted.getUnit());
-                            at.setMinQuantity(accepted.getMinQuantity());
-                            return at;
-                        })
+                        .map(accepted -> toAcceptedTypes(accepted.getType(), accepted.getUnit(), accepted.getMinQuantity()))
                         .toList()
         );
 
@@ -71,18 +48,76 @@ public class RecipientMapper {
         // Map open hours
         Map<String, List<String>> openHoursMap = new HashMap<>();
         for (OpenHour oh : recipient.getOpenHours()) {
-            String day = oh.getDayOfWeek().name().toLowerCase(); // keep keys consistent with DTO
-            String timeRange = oh.getOpenTime() + " - " + oh.getCloseTime();
-            openHoursMap.computeIfAbsent(day, k -> new ArrayList<>()).add(timeRange);
+            openHoursMap.computeIfAbsent(dayKey(oh.getDayOfWeek()), k -> new ArrayList<>())
+                    .add(timeRange(oh.getOpenTime(), oh.getCloseTime()));
         }
         dto.setOpenHours(openHoursMap);
 
         return dto;
     }
 
+    /**
+     * Maps a recipient using child rows loaded in bulk, without touching its lazy collections.
+     */
+    public RecipientDTO toDTO(Recipient recipient, RecipientChildren children) {
+        if (recipient == null) return null;
+
+        Long id = recipient.getId();
+        RecipientDTO dto = toBaseDTO(recipient);
+        dto.setContact(children.getContacts().get(id));
+        dto.setAcceptedTypes(children.getAcceptedTypes().getOrDefault(id, List.of()));
+        dto.setSpecialCapabilities(children.getSpecialCapabilities().getOrDefault(id, List.of()));
+        dto.setStorageCapabilities(children.getStorageCapabilities().getOrDefault(id, List.of()));
+        dto.setOpenHours(children.getOpenHours().getOrDefault(id, new HashMap<>()));
+        return dto;
+    }
+
     public List<RecipientDTO> toDTOList(List<Recipient> recipients) {
         return recipients.stream()
                 .map(this::toDTO)
                 .toList();
     }
+
+    public RecipientDTO.Contact toContact(String name, String email, String phone) {
+        RecipientDTO.Contact contact = new RecipientDTO.Contact();
+        contact.setName(name);
+        contact.setEmail(email);
+        contact.setPhone(phone);
+        return contact;
+    }
+
+    public RecipientDTO.AcceptedTypes toAcceptedTypes(String type, String unit, Integer minQuantity) {
+        RecipientDTO.AcceptedTypes at = new RecipientDTO.AcceptedTypes();
+        at.setType(type);
+        at.setUnit(unit);
+        at.setMinQuantity(minQuantity);
+        return at;
+    }
+
+    public String dayKey(OpenHour.DayOfWeek day) {
+        return day.name().toLowerCase(); // keep keys consistent with DTO
+    }
+
+    public String timeRange(Time openTime, Time closeTime) {
+        return openTime + " - " + closeTime;
+    }
+
+    private RecipientDTO toBaseDTO(Recipient recipient) {
+        RecipientDTO dto = new RecipientDTO();
+        dto.setId(recipient.getId());
+        dto.setName(recipient.getName());
+        dto.setAddress(recipient.getAddress());
+        dto.setDescription(recipient.getDescription());
+        dto.setStatus(recipient.getStatus().name());
+        dto.setTimezone(recipient.getTimezone());
+
+        // Map location
+        if (recipient.getLatitude() != null && recipient.getLongitude() != null) {
+            RecipientDTO.Location location = new RecipientDTO.Location();
+            location.setLatitude(recipient.getLatitude().doubleValue());
+            location.setLongitude(recipient.getLongitude().doubleValue());
+            dto.setLocation(location);
+        }
+        return dto;
+    }
 }
@@ -0,0 +1,52 @@
+package com.recipient.service.utils;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Normalizes recipient timezones to names that Java and Postgres read the same way.
+ * <p>
+ * Region ids from the tz database (e.g. {@code America/New_York}) are kept as they are. Offset forms
+ * such as {@code +05:00} or {@code UTC+5} are not: Postgres reads {@code AT TIME ZONE 'UTC+5'} as a
+ * POSIX zone, five hours <em>west</em> of UTC, while {@link ZoneId} puts it east. They are rewritten
+ * to the equivalent {@code Etc/GMT} zone, whose inverted sign both sides agree on.
+ */
+public final class RecipientTimezones {
+
+    private RecipientTimezones() {
+    }
+
+    /**
+     * @return the normalized timezone, or null when {@code timezone} is null or blank
+     * @throws IllegalArgumentException when the timezone is unknown or an offset that is not a whole hour
+     */
+    public static String normalize(String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            return null;
+        }
+
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(timezone.trim());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("invalid timezone: " + timezone);
+        }
+
+        if (ZoneId.getAvailableZoneIds().contains(zone.getId())) {
+            return zone.getId();
+        }
+
+        // Offset form, possibly behind a UTC/GMT/UT prefix
+        int seconds = zone.getRules().getOffset(Instant.EPOCH).getTotalSeconds();
+        if (seconds == 0) {
+            return "UTC";
+        }
+        String etcZone = "Etc/GMT" + (seconds > 0 ? "-" : "+") + Math.abs(seconds / 3600);
+        if (seconds % 3600 != 0 || !ZoneId.getAvailableZoneIds().contains(etcZone)) {
+            throw new IllegalArgumentException("invalid timezone: " + timezone
+                    + " (offsets must be whole hours between -12 and +14, otherwise use a region id such as Asia/Kolkata)");
+        }
+        return etcZone;
+    }
+}
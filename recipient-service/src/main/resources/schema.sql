@@ -0,0 +1,80 @@
+-- Runs after Hibernate has created/updated the tables (spring.jpa.defer-datasource-initialization=true).
+-- Every statement must be idempotent.
+
+-- Geography copy of recipients.location so ST_DWithin can use a GiST index instead of casting per row
+ALTER TABLE recipients
+    ADD COLUMN IF NOT EXISTS location_geog geography(Point, 4326)
+    GENERATED ALWAYS AS (location::geography) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_recipients_location_geog
+    ON recipients USING GIST (location_geog);
+
+-- Supporting indexes for the EXISTS subqueries in findMatchingRecipients
+CREATE INDEX IF NOT EXISTS idx_accepted_types_type_recipient
+    ON accepted_types (type, recipient_id) INCLUDE (min_quantity);
+
+CREATE INDEX IF NOT EXISTS idx_storage_capabilities_type_recipient
+    ON storage_capabilities (storage_type, recipient_id);
+
+-- Assign capability codes to values saved before capability_codes existed
+INSERT INTO capability_codes (kind, value, code)
+SELECT 'STORAGE', v.storage_type,
+       (SELECT COALESCE(MAX(code) + 1, 0) FROM capability_codes WHERE kind = 'STORAGE')
+           + ROW_NUMBER() OVER (ORDER BY v.storage_type) - 1
+FROM (SELECT DISTINCT storage_type FROM storage_capabilities WHERE storage_type IS NOT NULL) v
+WHERE NOT EXISTS (SELECT 1 FROM capability_codes c WHERE c.kind = 'STORAGE' AND c.value = v.storage_type);
+
+INSERT INTO capability_codes (kind, value, code)
+SELECT 'SPECIAL_CAPABILITY', v.special_capability,
+       (SELECT COALESCE(MAX(code) + 1, 0) FROM capability_codes WHERE kind = 'SPECIAL_CAPABILITY')
+           + ROW_NUMBER() OVER (ORDER BY v.special_capability) - 1
+FROM (SELECT DISTINCT special_capability FROM capabilities WHERE special_capability IS NOT NULL) v
+WHERE NOT EXISTS (SELECT 1 FROM capability_codes c WHERE c.kind = 'SPECIAL_CAPABILITY' AND c.value = v.special_capability);
+
+-- Capability bitmasks for recipients saved before the mask columns existed; codes >= 64 stay in the child tables only
+UPDATE recipients r
+SET storage_mask = COALESCE((
+    SELECT bit_or(1::bigint << c.code)
+    FROM storage_capabilities s
+    JOIN capability_codes c ON c.kind = 'STORAGE' AND c.value = s.storage_type
+    WHERE s.recipient_id = r.id AND c.code < 64
+), 0)
+WHERE r.storage_mask IS NULL;
+
+UPDATE recipients r
+SET special_capability_mask = COALESCE((
+    SELECT bit_or(1::bigint << c.code)
+    FROM capabilities sc
+    JOIN capability_codes c ON c.kind = 'SPECIAL_CAPABILITY' AND c.value = sc.special_capability
+    WHERE sc.recipient_id = r.id AND c.code < 64
+), 0)
+WHERE r.special_capability_mask IS NULL;
+
+-- Backfill open_hour_intervals for recipients saved before the table existed
+INSERT INTO open_hour_intervals (recipient_id, start_minute, end_minute)
+SELECT o.recipient_id,
+       (array_position(ARRAY['monday', 'tuesday', 'wednesday', 'thursday', 'friday', 'saturday', 'sunday'],
+                       o.day_of_week::text) - 1) * 1440
+           + EXTRACT(HOUR FROM o.open_time)::int * 60 + EXTRACT(MINUTE FROM o.open_time)::int,
+       (array_position(ARRAY['monday', 'tuesday', 'wednesday', 'thursday', 'friday', 'saturday', 'sunday'],
+                       o.day_of_week::text) - 1) * 1440
+           + EXTRACT(HOUR FROM o.close_time)::int * 60 + EXTRACT(MINUTE FROM o.close_time)::int
+FROM open_hours o
+WHERE o.close_time >= o.open_time
+  AND NOT EXISTS (SELECT 1 FROM open_hour_intervals w WHERE w.recipient_id = o.recipient_id);
+
+-- Zone names Postgres can resolve. The open-at predicates only apply AT TIME ZONE to these, since an unknown
+-- zone would fail the whole match query; refreshed on every start so it follows the server's tz database
+CREATE TABLE IF NOT EXISTS known_timezones (name text PRIMARY KEY);
+
+DELETE FROM known_timezones WHERE name NOT IN (SELECT name FROM pg_timezone_names);
+
+INSERT INTO known_timezones (name)
+SELECT name FROM pg_timezone_names
+ON CONFLICT (name) DO NOTHING;
+
+-- Recipients saved before the version column existed start at version 0
+UPDATE recipients SET version = 0 WHERE version IS NULL;
+
+-- Pre-serialized recipient JSON spliced into match responses; NULL until written or backfilled
+ALTER TABLE recipients ADD COLUMN IF NOT EXISTS card_json text;
@@ -0,0 +1,57 @@
+package com.recipient.service.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A replica that does not answer must not hold up startup or the scheduler thread running the probe.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    // Non-routable, so connecting hangs instead of being refused
+    private static final String UNREACHABLE_URL = "jdbc:postgresql://10.255.255.1:5432/recipients";
+
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+    }
+
+    @Test
+    void unreachableReplicaDelaysNeitherStartupNorTheProbe() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(UNREACHABLE_URL);
+        config.setPoolName("recipient-replica-0");
+        config.setInitializationFailTimeout(-1);
+        config.setConnectionTimeout(30_000);
+        routingDataSource = new ReadReplicaRoutingDataSource(mock(DataSource.class),
+                List.of(new HikariDataSource(config)), 5, 1, new SimpleMeterRegistry());
+
+        long start = System.nanoTime();
+        routingDataSource.afterPropertiesSet();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReadReplicaRoutingDataSource.PRIMARY);
+
+        start = System.nanoTime();
+        routingDataSource.checkReplicaLag();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReadReplicaRoutingDataSource.PRIMARY);
+    }
+}
@@ -0,0 +1,111 @@
+package com.recipient.service.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing against two real databases, wired like {@link ReadReplicaConfig}: read-only transactions
+ * reach the replica while it is healthy and fall back to the primary once it lags or goes down.
+ * The databases are told apart by name; skipped when Docker is unavailable.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ReadReplicaRoutingFallbackTest {
+
+    private static final DockerImageName IMAGE =
+            DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres");
+
+    @Container
+    static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>(IMAGE).withDatabaseName("primary");
+
+    @Container
+    static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>(IMAGE).withDatabaseName("replica");
+
+    private HikariDataSource primaryPool;
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @AfterEach
+    void tearDown() {
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+        if (primaryPool != null) {
+            primaryPool.close();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        route(REPLICA, 5);
+
+        assertThat(databaseFor(true)).isEqualTo("replica");
+        assertThat(databaseFor(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaOverMaxLagFallsBackToPrimary() {
+        // A standalone database reports zero lag, so any negative limit puts it over
+        route(REPLICA, -1);
+
+        assertThat(databaseFor(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaThatGoesDownFallsBackToPrimary() {
+        try (PostgreSQLContainer<?> replica = new PostgreSQLContainer<>(IMAGE).withDatabaseName("replica")) {
+            replica.start();
+            route(replica, 5);
+            assertThat(databaseFor(true)).isEqualTo("replica");
+
+            replica.stop();
+            routingDataSource.checkReplicaLag();
+
+            assertThat(databaseFor(true)).isEqualTo("primary");
+        }
+    }
+
+    private void route(PostgreSQLContainer<?> replica, double maxLagSeconds) {
+        primaryPool = pool(PRIMARY, "recipient-primary");
+        HikariDataSource replicaPool = pool(replica, "recipient-replica-0");
+        replicaPool.setReadOnly(true);
+        routingDataSource = new ReadReplicaRoutingDataSource(primaryPool, List.of(replicaPool),
+                maxLagSeconds, 1, new SimpleMeterRegistry());
+        routingDataSource.afterPropertiesSet();
+        // The startup probe runs in the background; probe once more so the outcome is known here
+        routingDataSource.checkReplicaLag();
+    }
+
+    private String databaseFor(boolean readOnly) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT current_database()", String.class));
+    }
+
+    private static HikariDataSource pool(PostgreSQLContainer<?> container, String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(container.getJdbcUrl());
+        config.setUsername(container.getUsername());
+        config.setPassword(container.getPassword());
+        config.setPoolName(poolName);
+        config.setInitializationFailTimeout(-1);
+        config.setConnectionTimeout(2000);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,106 @@
+package com.recipient.service.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipientSnapshotFileTest {
+
+    private static final int HEADER_SIZE = 24;
+
+    private Path dir;
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshot-test");
+        path = dir.resolve("recipients.bin");
+        RecipientSnapshotFile.write(path, Instant.ofEpochMilli(1_700_000_000_000L), List.of(
+                new IndexedRecipient(1L, 40.7, -74.0, Map.of("dairy", 5), Set.of("refrigerated")),
+                new IndexedRecipient(2L, 40.8, -73.9, Map.of("produce", 1), Set.of())),
+                id -> id == 1L
+                        ? Optional.of(WeeklySchedule.builder("UTC").openMinutes(540, 1020).build())
+                        : Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        RecipientSnapshotFile.Contents contents = RecipientSnapshotFile.read(path);
+
+        assertThat(contents.getCreatedAt()).isEqualTo(Instant.ofEpochMilli(1_700_000_000_000L));
+        assertThat(contents.getRecipients()).extracting(IndexedRecipient::getId).containsExactly(1L, 2L);
+        assertThat(contents.getRecipients().get(0).getMinQuantityByType()).isEqualTo(Map.of("dairy", 5));
+        assertThat(contents.getSchedules()).containsOnlyKeys(1L);
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 7);
+        }
+
+        assertThatThrownBy(() -> RecipientSnapshotFile.read(path)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void flippedByteFailsTheChecksum() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 3] ^= 0x5A;
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> RecipientSnapshotFile.read(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupt");
+    }
+
+    @Test
+    void negativeCountIsRejectedBeforeAllocating() throws IOException {
+        // The types dictionary count follows the header; checksum recomputed so only the count check can catch it
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(HEADER_SIZE, -1);
+        rewriteChecksum(bytes);
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> RecipientSnapshotFile.read(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Invalid count");
+    }
+
+    @Test
+    void hugeRowCountIsRejectedBeforeAllocating() throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE);
+        Files.write(path, bytes);
+
+        assertThatThrownBy(() -> RecipientSnapshotFile.read(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Invalid count");
+    }
+
+    private static void rewriteChecksum(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+        ByteBuffer.wrap(bytes).putInt(HEADER_SIZE - 4, (int) crc.getValue());
+    }
+}
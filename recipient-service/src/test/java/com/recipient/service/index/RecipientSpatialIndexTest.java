@@ -0,0 +1,74 @@
+package com.recipient.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class RecipientSpatialIndexTest {
+
+    private RecipientSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RecipientSpatialIndex();
+        index.load(List.of(
+                recipient(1L, 40.7128, -74.0060, Map.of("dairy", 5), Set.of("refrigerated")),
+                recipient(2L, 40.7200, -74.0000, Map.of("produce", 1), Set.of("dry")),
+                recipient(3L, 41.5000, -73.0000, Map.of("dairy", 1), Set.of("refrigerated"))));
+    }
+
+    @Test
+    void matchesTypeQuantityStorageAndRadius() {
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 5, "dairy", 10, "refrigerated"))
+                .containsExactly(1L);
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 5, "dairy", 2, "refrigerated"))
+                .isEmpty();
+    }
+
+    @Test
+    void missingTypeOrStorageMatchesNothing() {
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 500, null, 10, "refrigerated")).isEmpty();
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 500, "dairy", 10, null)).isEmpty();
+    }
+
+    @Test
+    void missingTypeOrStorageMatchesNothingForDirtyEntries() {
+        index.upsert(recipient(4L, 40.7130, -74.0061, Map.of("dairy", 1), Set.of("refrigerated")));
+
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 5, "dairy", 10, "refrigerated"))
+                .containsExactlyInAnyOrder(1L, 4L);
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 5, null, 10, "refrigerated")).isEmpty();
+        assertThat(index.findCandidateIds(40.7128, -74.0060, 5, "dairy", 10, null)).isEmpty();
+    }
+
+    @Test
+    void nullKeysInEntriesAreSkippedWhenBuildingColumns() {
+        Map<String, Integer> types = new HashMap<>();
+        types.put(null, 1);
+        types.put("dairy", null);
+        types.put("bakery", 1);
+        Set<String> storage = new HashSet<>();
+        storage.add(null);
+        storage.add("dry");
+
+        RecipientSpatialIndex withNulls = new RecipientSpatialIndex();
+        assertThatCode(() -> withNulls.load(List.of(recipient(5L, 10, 10, types, storage))))
+                .doesNotThrowAnyException();
+
+        assertThat(withNulls.findCandidateIds(10, 10, 1, "bakery", 1, "dry")).containsExactly(5L);
+        assertThat(withNulls.findCandidateIds(10, 10, 1, "dairy", 100, "dry")).isEmpty();
+    }
+
+    private static IndexedRecipient recipient(Long id, double latitude, double longitude,
+                                              Map<String, Integer> minQuantityByType, Set<String> storageTypes) {
+        return new IndexedRecipient(id, latitude, longitude, minQuantityByType, storageTypes);
+    }
+}
@@ -0,0 +1,70 @@
+package com.recipient.service.producers;
+
+import com.recipient.service.models.RecipientChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * The pending queue never holds more than {@code max-pending} events, however many writers race for the last slot.
+ */
+class RecipientChangePublisherTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+
+    private RecipientChangePublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new RecipientChangePublisher(rabbitTemplate);
+        ReflectionTestUtils.setField(publisher, "eventsEnabled", true);
+        ReflectionTestUtils.setField(publisher, "exchange", "recipient-exchange");
+        ReflectionTestUtils.setField(publisher, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(publisher, "maxPending", 10);
+        publisher.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentWritersCannotOverfillTheQueue() throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 200; i++) {
+            long recipientId = i;
+            writers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                publisher.onRecipientChanged(event(recipientId));
+            });
+        }
+        start.countDown();
+        writers.shutdown();
+        assertThat(writers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        publisher.flush();
+
+        ArgumentCaptor<Object> batch = ArgumentCaptor.forClass(Object.class);
+        verify(rabbitTemplate).convertAndSend(eq("recipient-exchange"), eq("recipient.changed"), batch.capture());
+        assertThat((List<RecipientChangeEvent>) batch.getValue()).hasSize(10);
+    }
+
+    private static RecipientChangeEvent event(long recipientId) {
+        return new RecipientChangeEvent(recipientId, 1L, RecipientChangeEvent.ChangeType.UPSERTED, "active",
+                0.0, 0.0, "2026-03-02T09:00:00Z");
+    }
+}
@@ -0,0 +1,144 @@
+package com.recipient.service.repositories;
+
+import com.recipient.service.entities.AcceptedType;
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.entities.StorageCapability;
+import com.recipient.service.models.DonationDTO;
+import com.recipient.service.services.CapabilityDictionary;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Match queries list their columns instead of {@code SELECT *}, so they must still cover every column
+ * mapped on {@link Recipient}. Runs against PostGIS with schema.sql applied; skipped when Docker is unavailable.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=always",
+        "spring.jpa.defer-datasource-initialization=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CapabilityDictionary.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RecipientRepositoryMatchTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    @Autowired
+    private RecipientRepository recipientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapabilityDictionary capabilityDictionary;
+
+    @Test
+    void matchedRecipientsCarryEveryMappedColumn() {
+        Recipient saved = saveRecipient();
+
+        List<Recipient> matches = recipientRepository.findMatchingRecipients(donation(), 10, storageMask());
+
+        assertThat(matches).singleElement().satisfies(recipient -> assertMapped(recipient, saved));
+    }
+
+    @Test
+    void streamedRecipientsCarryEveryMappedColumn() {
+        Recipient saved = saveRecipient();
+
+        try (Stream<Recipient> matches = recipientRepository.streamMatchingRecipients(donation(), 10, storageMask(), null, 100)) {
+            assertThat(matches.toList()).singleElement().satisfies(recipient -> assertMapped(recipient, saved));
+        }
+    }
+
+    private static void assertMapped(Recipient recipient, Recipient saved) {
+        assertThat(recipient.getId()).isEqualTo(saved.getId());
+        assertThat(recipient.getName()).isEqualTo("Food Bank");
+        assertThat(recipient.getAddress()).isEqualTo("1 Main St");
+        assertThat(recipient.getDescription()).isEqualTo("Open to all");
+        assertThat(recipient.getLatitude()).isEqualByComparingTo("40.712800");
+        assertThat(recipient.getLongitude()).isEqualByComparingTo("-74.006000");
+        assertThat(recipient.getLocation()).isNotNull();
+        assertThat(recipient.getStatus()).isEqualTo(Recipient.RecipientStatus.active);
+        assertThat(recipient.getTimezone()).isEqualTo("America/New_York");
+        assertThat(recipient.getStorageMask()).isEqualTo(0L);
+        assertThat(recipient.getSpecialCapabilityMask()).isEqualTo(0L);
+        assertThat(recipient.getCreatedAt()).isNotNull();
+        assertThat(recipient.getVersion()).isEqualTo(saved.getVersion());
+    }
+
+    private Recipient saveRecipient() {
+        GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+        Recipient recipient = Recipient.builder()
+                .name("Food Bank")
+                .address("1 Main St")
+                .description("Open to all")
+                .latitude(BigDecimal.valueOf(40.7128))
+                .longitude(BigDecimal.valueOf(-74.0060))
+                .location(geometryFactory.createPoint(new Coordinate(-74.0060, 40.7128)))
+                .status(Recipient.RecipientStatus.active)
+                .timezone("America/New_York")
+                .storageMask(0L)
+                .specialCapabilityMask(0L)
+                .createdAt(LocalDateTime.now())
+                .build();
+        recipient.getAcceptedTypes().add(AcceptedType.builder()
+                .type("dairy").unit("kg").minQuantity(1).recipient(recipient).build());
+        recipient.getStorageCapabilities().add(StorageCapability.builder()
+                .storageType("refrigerated").recipient(recipient).build());
+
+        Recipient saved = recipientRepository.save(recipient);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE recipients SET card_json = ? WHERE id = ?", "{\"id\":" + saved.getId() + "}", saved.getId());
+        entityManager.clear();
+        return saved;
+    }
+
+    private long storageMask() {
+        return capabilityDictionary.storageMaskOf(donation().getDonation().getStorageCapability());
+    }
+
+    private static DonationDTO donation() {
+        DonationDTO.Location location = new DonationDTO.Location();
+        location.setLatitude(40.7130);
+        location.setLongitude(-74.0050);
+        DonationDTO.Donor donor = new DonationDTO.Donor();
+        donor.setLocation(location);
+
+        DonationDTO.Donation donation = new DonationDTO.Donation();
+        donation.setType("dairy");
+        donation.setQuantity(5);
+        donation.setStorageCapability("refrigerated");
+
+        DonationDTO donationDTO = new DonationDTO();
+        donationDTO.setDonor(donor);
+        donationDTO.setDonation(donation);
+        return donationDTO;
+    }
+}
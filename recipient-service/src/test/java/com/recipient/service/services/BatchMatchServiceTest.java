@@ -0,0 +1,56 @@
+package com.recipient.service.services;
+
+import com.recipient.service.models.BatchMatchResultDTO;
+import com.recipient.service.models.DonationDTO;
+import com.recipient.service.repositories.RecipientRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * An entry that cannot be matched fails its own slot; the rest of the batch is still matched.
+ */
+class BatchMatchServiceTest {
+
+    private final RecipientRepository recipientRepository = mock(RecipientRepository.class);
+
+    private final BatchMatchService batchMatchService = new BatchMatchService(recipientRepository,
+            mock(RecipientIndexService.class), mock(RecipientHydrationService.class), mock(CapabilityDictionary.class));
+
+    @Test
+    void entriesWithoutAPickupTimeFailIndividually() {
+        when(recipientRepository.findMatchingRecipientIdsBatch(anyMap(), anyMap(), anyMap(), anyDouble()))
+                .thenReturn(Map.of(0, List.of()));
+
+        DonationDTO windowOnly = donation(null);
+        windowOnly.getDonation().setPickupWindowStart("2026-03-02T09:00:00Z");
+        windowOnly.getDonation().setPickupWindowEnd("2026-03-02T12:00:00Z");
+
+        List<BatchMatchResultDTO> results = batchMatchService.findEligibleRecipientsBatch(
+                List.of(donation("2026-03-02T09:00:00Z"), windowOnly, donation(null)), 10);
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(0).getRecipients()).isEmpty();
+        assertThat(results.get(1).getError()).isEqualTo("Pickup windows are not supported in batch matching.");
+        assertThat(results.get(2).getError()).isEqualTo("donation_pickup_time or pickup window is required");
+    }
+
+    private static DonationDTO donation(String pickupTime) {
+        DonationDTO.Donation donation = new DonationDTO.Donation();
+        donation.setDonationPickupTime(pickupTime);
+        DonationDTO.Donor donor = new DonationDTO.Donor();
+        donor.setLocation(new DonationDTO.Location());
+        DonationDTO donationDTO = new DonationDTO();
+        donationDTO.setDonation(donation);
+        donationDTO.setDonor(donor);
+        return donationDTO;
+    }
+}
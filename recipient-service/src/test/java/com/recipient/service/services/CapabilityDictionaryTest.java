@@ -0,0 +1,60 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.CapabilityCode;
+import com.recipient.service.repositories.CapabilityCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unknown values are looked up once, not on every match request, until a code is assigned to them.
+ */
+class CapabilityDictionaryTest {
+
+    private final CapabilityCodeRepository capabilityCodeRepository = mock(CapabilityCodeRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private CapabilityDictionary capabilityDictionary;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(capabilityCodeRepository.findByKindAndValue(any(), anyString())).thenReturn(Optional.empty());
+        capabilityDictionary = new CapabilityDictionary(capabilityCodeRepository, jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void unknownValueIsLookedUpOnce() {
+        assertThat(capabilityDictionary.storageMaskOf("cryogenic")).isZero();
+        assertThat(capabilityDictionary.storageMaskOf("cryogenic")).isZero();
+        assertThat(capabilityDictionary.codeOf(CapabilityCode.Kind.STORAGE, "cryogenic")).isEmpty();
+
+        verify(capabilityCodeRepository, times(1)).findByKindAndValue(CapabilityCode.Kind.STORAGE, "cryogenic");
+    }
+
+    @Test
+    void assigningACodeReplacesTheUnknownEntry() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT 1"), eq(Integer.class), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any())).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COALESCE"), eq(Integer.class), any())).thenReturn(3);
+
+        assertThat(capabilityDictionary.storageMaskOf("cryogenic")).isZero();
+        assertThat(capabilityDictionary.maskOf(CapabilityCode.Kind.STORAGE, Set.of("cryogenic"))).isEqualTo(1L << 3);
+
+        assertThat(capabilityDictionary.codeOf(CapabilityCode.Kind.STORAGE, "cryogenic")).isEqualTo(OptionalInt.of(3));
+        assertThat(capabilityDictionary.storageMaskOf("cryogenic")).isEqualTo(1L << 3);
+        verify(capabilityCodeRepository, times(1)).findByKindAndValue(CapabilityCode.Kind.STORAGE, "cryogenic");
+    }
+}
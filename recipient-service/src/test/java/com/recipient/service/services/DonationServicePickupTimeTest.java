@@ -0,0 +1,47 @@
+package com.recipient.service.services;
+
+import com.recipient.service.models.DonationDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A donation without a pickup time must be a client error, not a NullPointerException and a 500.
+ */
+class DonationServicePickupTimeTest {
+
+    @Test
+    void windowOnlyDonationHasNoPickupTime() {
+        DonationDTO donationDTO = donation(null);
+        donationDTO.getDonation().setPickupWindowStart("2026-03-02T09:00:00Z");
+        donationDTO.getDonation().setPickupWindowEnd("2026-03-02T12:00:00Z");
+
+        assertThat(DonationService.parsePickupWindow(donationDTO)).isNotNull();
+        assertThatThrownBy(() -> DonationService.parsePickupTime(donationDTO))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("donation_pickup_time or pickup window is required");
+    }
+
+    @Test
+    void missingPickupTimeIsRejected() {
+        assertThatThrownBy(() -> DonationService.parsePickupTime(donation(null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pickupTimeIsParsed() {
+        assertThat(DonationService.parsePickupTime(donation("2026-03-02T09:00:00Z")))
+                .isEqualTo(Instant.parse("2026-03-02T09:00:00Z"));
+    }
+
+    private static DonationDTO donation(String pickupTime) {
+        DonationDTO.Donation donation = new DonationDTO.Donation();
+        donation.setDonationPickupTime(pickupTime);
+        DonationDTO donationDTO = new DonationDTO();
+        donationDTO.setDonation(donation);
+        return donationDTO;
+    }
+}
@@ -0,0 +1,164 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.*;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.utils.RecipientMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hydrating match results must cost one statement per child table, however many recipients
+ * there are. Counted with Hibernate statistics against PostGIS; skipped when Docker is unavailable.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never",
+        "recipient.hydration.mode=serial"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RecipientHydrationService.class, RecipientMapper.class, CapabilityDictionary.class})
+@Testcontainers(disabledWithoutDocker = true)
+class RecipientHydrationStatementCountTest {
+
+    private static final int CHILD_TABLES = 5;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+
+    @Autowired
+    private RecipientHydrationService recipientHydrationService;
+
+    @Autowired
+    private RecipientMapper recipientMapper;
+
+    @Autowired
+    private RecipientRepository recipientRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void hydratesFewRecipientsWithOneStatementPerChildTable() {
+        assertThat(statementsToHydrate(3)).isEqualTo(CHILD_TABLES);
+    }
+
+    @Test
+    void hydratesManyRecipientsWithOneStatementPerChildTable() {
+        assertThat(statementsToHydrate(40)).isEqualTo(CHILD_TABLES);
+    }
+
+    @Test
+    void matchesLazyMappingWhileLazyMappingCostsStatementsPerRecipient() {
+        List<Recipient> recipients = saveRecipients(10);
+
+        statistics.clear();
+        List<RecipientDTO> hydrated = recipientHydrationService.toDTOList(recipients);
+        long hydratedStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<RecipientDTO> lazy = recipientMapper.toDTOList(recipients);
+        long lazyStatements = statistics.getPrepareStatementCount();
+
+        assertThat(hydrated).isEqualTo(lazy);
+        assertThat(hydratedStatements).isEqualTo(CHILD_TABLES);
+        assertThat(lazyStatements).isEqualTo((long) CHILD_TABLES * recipients.size());
+    }
+
+    private long statementsToHydrate(int count) {
+        List<Recipient> recipients = saveRecipients(count);
+
+        statistics.clear();
+        List<RecipientDTO> dtos = recipientHydrationService.toDTOList(recipients);
+
+        assertThat(dtos).hasSize(count);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getContact()).isNotNull();
+            assertThat(dto.getAcceptedTypes()).hasSize(2);
+            assertThat(dto.getSpecialCapabilities()).hasSize(1);
+            assertThat(dto.getStorageCapabilities()).hasSize(1);
+            assertThat(dto.getOpenHours()).hasSize(1);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Saves recipients with every child collection filled, then detaches them and reloads the
+     * recipients alone, the way match queries return them.
+     */
+    private List<Recipient> saveRecipients(int count) {
+        GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+        List<Long> ids = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            double latitude = 40 + i * 0.001;
+            double longitude = -74 - i * 0.001;
+            Recipient recipient = Recipient.builder()
+                    .name("Recipient " + i)
+                    .latitude(BigDecimal.valueOf(latitude))
+                    .longitude(BigDecimal.valueOf(longitude))
+                    .location(geometryFactory.createPoint(new Coordinate(longitude, latitude)))
+                    .status(Recipient.RecipientStatus.active)
+                    .timezone("UTC")
+                    .build();
+
+            recipient.getContacts().add(Contact.builder()
+                    .name("Contact " + i).email("contact" + i + "@example.org").phone("555-0100")
+                    .recipient(recipient).build());
+            recipient.getAcceptedTypes().add(AcceptedType.builder()
+                    .type("dairy").unit("kg").minQuantity(5).recipient(recipient).build());
+            recipient.getAcceptedTypes().add(AcceptedType.builder()
+                    .type("produce").unit("kg").minQuantity(1).recipient(recipient).build());
+            recipient.getSpecialCapabilities().add(SpecialCapability.builder()
+                    .specialCapability("pickup").recipient(recipient).build());
+            recipient.getStorageCapabilities().add(StorageCapability.builder()
+                    .storageType("refrigerated").recipient(recipient).build());
+            recipient.getOpenHours().add(OpenHour.builder()
+                    .dayOfWeek(OpenHour.DayOfWeek.monday)
+                    .openTime(Time.valueOf("09:00:00")).closeTime(Time.valueOf("17:00:00"))
+                    .recipient(recipient).build());
+
+            ids.add(recipientRepository.save(recipient).getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return recipientRepository.findByIdIn(ids);
+    }
+}
@@ -0,0 +1,75 @@
+package com.recipient.service.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipient.service.models.ImportReportDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * A bad line must cost only its own row, never the rest of the import.
+ */
+class RecipientImportServiceTest {
+
+    private static final String GOOD = """
+            {"name":"%s","location":{"latitude":52.5,"longitude":13.4},"status":"active","timezone":"UTC",\
+            "open_hours":{"monday":["09:00-17:00"]}}""";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final RecipientIndexService recipientIndexService = mock(RecipientIndexService.class);
+    private final RecipientTimezoneService recipientTimezoneService = mock(RecipientTimezoneService.class);
+
+    private RecipientImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(recipientTimezoneService.normalize("UTC")).thenReturn("UTC");
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any())).thenReturn(List.of(1L, 2L));
+
+        importService = new RecipientImportService(jdbcTemplate, new TransactionTemplate(transactionManager),
+                new ObjectMapper(), recipientIndexService, mock(CapabilityDictionary.class),
+                mock(RecipientCardService.class), recipientTimezoneService, mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(importService, "chunkSize", 500);
+    }
+
+    @Test
+    void nullMalformedAndNonObjectLinesAreRowErrors() throws Exception {
+        String ndjson = String.join("\n",
+                GOOD.formatted("first"),
+                "{\"name\": ",
+                "null",
+                "[1, 2]",
+                "\"text\"",
+                "{\"name\":\"no hours\",\"location\":{\"latitude\":1,\"longitude\":1},\"status\":\"active\","
+                        + "\"timezone\":\"UTC\",\"open_hours\":{\"monday\":[null]}}",
+                GOOD.formatted("second"));
+
+        ImportReportDTO report = importService.importNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(5);
+        assertThat(report.getErrors()).extracting(ImportReportDTO.RowError::getLine)
+                .containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(report.getErrors().get(1).getError()).isEqualTo("Expected a JSON object");
+        verify(recipientIndexService).onRecipientsImported(argThat(imported -> imported.keySet().equals(Set.of(1L, 2L))));
+    }
+}
@@ -0,0 +1,115 @@
+package com.recipient.service.services;
+
+import com.recipient.service.index.IndexedRecipient;
+import com.recipient.service.index.MatchCandidateCache;
+import com.recipient.service.index.OpenHoursRegistry;
+import com.recipient.service.index.RecipientSnapshotFile;
+import com.recipient.service.index.RecipientSpatialIndex;
+import com.recipient.service.repositories.AcceptedTypeRepository;
+import com.recipient.service.repositories.OpenHourRepository;
+import com.recipient.service.repositories.RecipientRepository;
+import com.recipient.service.repositories.StorageCapabilityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * A damaged snapshot must fall back to the full build instead of failing startup.
+ */
+class RecipientIndexServiceSnapshotTest {
+
+    private final RecipientSpatialIndex recipientSpatialIndex = new RecipientSpatialIndex();
+    private final RecipientRepository recipientRepository = mock(RecipientRepository.class);
+    private final AcceptedTypeRepository acceptedTypeRepository = mock(AcceptedTypeRepository.class);
+
+    private Path dir;
+    private Path snapshotPath;
+    private RecipientIndexService recipientIndexService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshot-fallback-test");
+        snapshotPath = dir.resolve("recipients.bin");
+
+        OpenHoursRegistry openHoursRegistry = new OpenHoursRegistry();
+        RecipientSnapshotService recipientSnapshotService = new RecipientSnapshotService(recipientSpatialIndex, openHoursRegistry);
+        ReflectionTestUtils.setField(recipientSnapshotService, "snapshotEnabled", true);
+        ReflectionTestUtils.setField(recipientSnapshotService, "snapshotPath", snapshotPath);
+
+        recipientIndexService = new RecipientIndexService(recipientSpatialIndex, recipientRepository,
+                acceptedTypeRepository, mock(StorageCapabilityRepository.class), mock(OpenHourRepository.class),
+                openHoursRegistry, mock(MatchCandidateCache.class), recipientSnapshotService, mock(TaskScheduler.class));
+        ReflectionTestUtils.setField(recipientIndexService, "indexEnabled", true);
+
+        when(recipientRepository.findActiveLocations()).thenReturn(List.<Object[]>of(
+                new Object[]{7L, BigDecimal.valueOf(40.7), BigDecimal.valueOf(-74.0)}));
+        when(acceptedTypeRepository.findActiveRecipientTypes()).thenReturn(List.<Object[]>of(new Object[]{7L, "dairy", 1}));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotPath);
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    void intactSnapshotWarmStarts() throws IOException {
+        writeSnapshot();
+        when(recipientRepository.findActiveIds()).thenReturn(List.of(1L));
+
+        recipientIndexService.buildIndex();
+
+        verify(recipientRepository, never()).findActiveLocations();
+        assertThat(recipientSpatialIndex.get(1L)).isPresent();
+    }
+
+    @Test
+    void corruptSnapshotFallsBackToFullBuild() throws IOException {
+        writeSnapshot();
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        ByteBuffer.wrap(bytes).putInt(16, -5);
+        Files.write(snapshotPath, bytes);
+
+        recipientIndexService.buildIndex();
+
+        verify(recipientRepository).findActiveLocations();
+        assertThat(recipientSpatialIndex.get(7L)).isPresent();
+        assertThat(recipientSpatialIndex.get(1L)).isEmpty();
+    }
+
+    @Test
+    void truncatedSnapshotFallsBackToFullBuild() throws IOException {
+        writeSnapshot();
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        Files.write(snapshotPath, Arrays.copyOf(bytes, 30));
+
+        recipientIndexService.buildIndex();
+
+        verify(recipientRepository).findActiveLocations();
+        assertThat(recipientSpatialIndex.get(7L)).isPresent();
+    }
+
+    private void writeSnapshot() throws IOException {
+        RecipientSnapshotFile.write(snapshotPath, Instant.now(),
+                List.of(new IndexedRecipient(1L, 40.7, -74.0, Map.of("dairy", 5), Set.of("refrigerated"))),
+                id -> Optional.empty());
+    }
+}
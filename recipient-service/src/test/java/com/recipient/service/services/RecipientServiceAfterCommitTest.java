@@ -0,0 +1,106 @@
+package com.recipient.service.services;
+
+import com.recipient.service.entities.Recipient;
+import com.recipient.service.models.RecipientDTO;
+import com.recipient.service.repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The match index and candidate cache must only see a recipient write once it has committed.
+ */
+class RecipientServiceAfterCommitTest {
+
+    private final RecipientRepository recipientRepository = mock(RecipientRepository.class);
+    private final RecipientIndexService recipientIndexService = mock(RecipientIndexService.class);
+    private final RecipientTimezoneService recipientTimezoneService = mock(RecipientTimezoneService.class);
+
+    private RecipientService recipientService;
+
+    @BeforeEach
+    void setUp() {
+        recipientService = new RecipientService(recipientRepository, mock(ContactRepository.class),
+                mock(AcceptedTypeRepository.class), mock(CapabilityRepository.class),
+                mock(StorageCapabilityRepository.class), mock(OpenHourRepository.class),
+                mock(OpenHourIntervalRepository.class), recipientIndexService, mock(CapabilityDictionary.class),
+                mock(RecipientCardService.class), recipientTimezoneService, mock(ApplicationEventPublisher.class));
+        when(recipientTimezoneService.normalize("UTC")).thenReturn("UTC");
+        when(recipientRepository.save(any(Recipient.class))).thenAnswer(invocation -> {
+            Recipient recipient = invocation.getArgument(0);
+            recipient.setId(7L);
+            return recipient;
+        });
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void savedRecipientReachesIndexOnlyAfterCommit() {
+        RecipientDTO dto = recipient();
+
+        recipientService.saveRecipient(dto);
+        verifyNoInteractions(recipientIndexService);
+
+        commit();
+        verify(recipientIndexService).onRecipientSaved(7L, dto);
+    }
+
+    @Test
+    void savedRecipientNeverReachesIndexOnRollback() {
+        recipientService.saveRecipient(recipient());
+        rollback();
+
+        verifyNoInteractions(recipientIndexService);
+    }
+
+    @Test
+    void deletedRecipientLeavesIndexOnlyAfterCommit() {
+        Recipient recipient = Recipient.builder().id(9L).status(Recipient.RecipientStatus.active).build();
+        when(recipientRepository.findById("9")).thenReturn(Optional.of(recipient));
+
+        recipientService.deleteRecipientById("9");
+        verifyNoInteractions(recipientIndexService);
+
+        commit();
+        verify(recipientIndexService).onRecipientDeleted(9L);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).isNotEmpty();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void rollback() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+    private static RecipientDTO recipient() {
+        RecipientDTO dto = new RecipientDTO();
+        dto.setName("Food Bank");
+        dto.setStatus("active");
+        dto.setTimezone("UTC");
+        RecipientDTO.Location location = new RecipientDTO.Location();
+        location.setLatitude(40.7128);
+        location.setLongitude(-74.0060);
+        dto.setLocation(location);
+        return dto;
+    }
+}
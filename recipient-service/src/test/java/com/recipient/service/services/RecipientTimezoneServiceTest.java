@@ -0,0 +1,62 @@
+package com.recipient.service.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipientTimezoneServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RecipientCardService recipientCardService;
+    private RecipientTimezoneService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        recipientCardService = mock(RecipientCardService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        when(jdbcTemplate.queryForList("SELECT name FROM known_timezones", String.class))
+                .thenReturn(List.of("UTC", "Etc/GMT-5", "America/New_York"));
+
+        service = new RecipientTimezoneService(jdbcTemplate, new TransactionTemplate(transactionManager), recipientCardService);
+    }
+
+    @Test
+    void normalizesAgainstZonesKnownToPostgres() {
+        assertThat(service.normalize("UTC+5")).isEqualTo("Etc/GMT-5");
+        assertThat(service.normalize("America/New_York")).isEqualTo("America/New_York");
+        assertThat(service.normalize(null)).isNull();
+
+        // Valid for java.time but missing from the database's tz data
+        assertThatThrownBy(() -> service.normalize("Europe/Paris")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rewritesStoredOffsetTimezonesAndRefreshesTheirCards() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT timezone"), eq(String.class)))
+                .thenReturn(List.of("America/New_York", "UTC+5", "Mars/Olympus_Mons"));
+        when(jdbcTemplate.queryForList(startsWith("UPDATE recipients"), eq(Long.class), eq("Etc/GMT-5"), eq("UTC+5")))
+                .thenReturn(List.of(7L, 9L));
+
+        service.normalizeStoredTimezones();
+
+        verify(jdbcTemplate).queryForList(startsWith("UPDATE recipients"), eq(Long.class), eq("Etc/GMT-5"), eq("UTC+5"));
+        verify(jdbcTemplate, never()).queryForList(startsWith("UPDATE recipients"), eq(Long.class), anyString(), eq("America/New_York"));
+        verify(jdbcTemplate, never()).queryForList(startsWith("UPDATE recipients"), eq(Long.class), anyString(), eq("Mars/Olympus_Mons"));
+        verify(recipientCardService).refreshCards(List.of(7L, 9L));
+    }
+}
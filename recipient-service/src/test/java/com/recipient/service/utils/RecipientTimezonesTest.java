@@ -0,0 +1,50 @@
+package com.recipient.service.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipientTimezonesTest {
+
+    @Test
+    void keepsRegionIds() {
+        assertThat(RecipientTimezones.normalize("America/New_York")).isEqualTo("America/New_York");
+        assertThat(RecipientTimezones.normalize(" Asia/Kolkata ")).isEqualTo("Asia/Kolkata");
+        assertThat(RecipientTimezones.normalize("UTC")).isEqualTo("UTC");
+        assertThat(RecipientTimezones.normalize("Etc/GMT+5")).isEqualTo("Etc/GMT+5");
+    }
+
+    @Test
+    void rewritesOffsetsToEtcZonesWithTheSameOffset() {
+        assertThat(RecipientTimezones.normalize("UTC+5")).isEqualTo("Etc/GMT-5");
+        assertThat(RecipientTimezones.normalize("+05:00")).isEqualTo("Etc/GMT-5");
+        assertThat(RecipientTimezones.normalize("GMT-3")).isEqualTo("Etc/GMT+3");
+        assertThat(RecipientTimezones.normalize("Z")).isEqualTo("UTC");
+        assertThat(RecipientTimezones.normalize("UTC+0")).isEqualTo("UTC");
+
+        for (String offset : new String[]{"UTC+5", "UTC-11", "+14:00", "GMT-12"}) {
+            assertThat(ZoneId.of(RecipientTimezones.normalize(offset)).getRules().getOffset(Instant.EPOCH))
+                    .isEqualTo(ZoneId.of(offset).getRules().getOffset(Instant.EPOCH));
+        }
+    }
+
+    @Test
+    void rejectsUnknownZonesAndPartialHourOffsets() {
+        assertThatThrownBy(() -> RecipientTimezones.normalize("Mars/Olympus_Mons"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipientTimezones.normalize("+05:30"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipientTimezones.normalize("UTC+15"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void blankIsNull() {
+        assertThat(RecipientTimezones.normalize(null)).isNull();
+        assertThat(RecipientTimezones.normalize("  ")).isNull();
+    }
+}